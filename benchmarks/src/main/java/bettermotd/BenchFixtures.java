@@ -0,0 +1,252 @@
+package bettermotd;
+
+import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
+import com.destroystokyo.paper.network.StatusClient;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.server.ServerListPingEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.CachedServerIcon;
+
+/**
+ * Minimal server, plugin and event stand-ins so {@link MotdService} can run outside a server. Everything that is
+ * not needed on the ping path answers with a zero value.
+ */
+final class BenchFixtures {
+
+    static final String PROFILE_ID = "bench";
+    static final int PRESET_COUNT = 8;
+    static final int BASE_ONLINE = 57;
+    static final int BASE_MAX = 200;
+
+    private static final Logger LOGGER = quietLogger();
+    private static final CachedServerIcon ICON = stub(CachedServerIcon.class, Map.of());
+
+    private BenchFixtures() {}
+
+    static synchronized void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        Server server = stub(
+                Server.class,
+                Map.of(
+                        "getLogger", LOGGER,
+                        "getOnlinePlayers", List.of(),
+                        "getMaxPlayers", BASE_MAX,
+                        "getMinecraftVersion", "1.21.11",
+                        "getName", "BetterMOTD-bench",
+                        "getVersion", "bench",
+                        "getBukkitVersion", "bench",
+                        "loadServerIcon", ICON));
+        try {
+            // Bukkit.setServer logs build info that is not available outside a real server.
+            Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot install stub server", e);
+        }
+    }
+
+    static MotdService newService(String selectionMode, boolean placeholders) {
+        installServer();
+        File dataFolder = createDataFolder();
+        FileConfiguration config = new YamlConfiguration();
+        try {
+            config.loadFromString(configYaml(selectionMode, placeholders));
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalStateException("Invalid benchmark config", e);
+        }
+
+        Plugin plugin = stub(
+                Plugin.class,
+                Map.of(
+                        "getLogger", LOGGER,
+                        "getConfig", config,
+                        "getDataFolder", dataFolder,
+                        "getName", "BetterMOTD",
+                        "isEnabled", true));
+        MotdService service = new MotdService(plugin, new ActiveProfileStore(plugin));
+        MotdService.ReloadResult result = service.reload();
+        if (!result.success()) {
+            throw new IllegalStateException("Benchmark config failed to load");
+        }
+        return service;
+    }
+
+    static ServerListPingEvent[] newEvents(int clients, boolean paper) {
+        ServerListPingEvent[] events = new ServerListPingEvent[clients];
+        for (int i = 0; i < clients; i++) {
+            InetAddress address = clientAddress(i);
+            events[i] = paper ? paperEvent(address) : new BukkitPingEvent(address);
+        }
+        return events;
+    }
+
+    static InetAddress clientAddress(int index) {
+        byte[] raw = {(byte) 10, (byte) (index >>> 16), (byte) (index >>> 8), (byte) index};
+        try {
+            return InetAddress.getByAddress(raw);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ServerListPingEvent paperEvent(InetAddress address) {
+        InetSocketAddress socket = new InetSocketAddress(address, 40000);
+        StatusClient client = stub(
+                StatusClient.class,
+                Map.of(
+                        "getAddress", socket,
+                        "getVirtualHost", new InetSocketAddress("play.example.net", 25565),
+                        "getProtocolVersion", 774));
+        return new PaperServerListPingEvent(
+                client, Component.text("A Minecraft Server"), BASE_ONLINE, BASE_MAX, "1.21.11", 774, null);
+    }
+
+    private static String configYaml(String selectionMode, boolean placeholders) {
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("activeProfile: \"").append(PROFILE_ID).append("\"\n");
+        yaml.append("placeholders:\n  enabled: true\n");
+        yaml.append("colorFormat: \"AUTO\"\n");
+        // A benchmark pings far faster than any client would; measure the full path, not the throttled one.
+        yaml.append("performance:\n  rateLimit:\n    enabled: false\n");
+        yaml.append("profiles:\n");
+        yaml.append("  ").append(PROFILE_ID).append(":\n");
+        yaml.append("    selectionMode: \"").append(selectionMode).append("\"\n");
+        yaml.append("    stickyTtlSeconds: 10\n");
+        yaml.append("    stickyMaxEntriesPerProfile: 10000\n");
+        yaml.append("    animation:\n");
+        yaml.append("      enabled: true\n");
+        yaml.append("      frameIntervalMillis: 450\n");
+        yaml.append("      motdAnimationMode: \"GLOBAL\"\n");
+        yaml.append("    presets:\n");
+        for (int i = 0; i < PRESET_COUNT; i++) {
+            yaml.append("      - id: \"preset").append(i).append("\"\n");
+            yaml.append("        weight: ").append(1 + (i % 4)).append("\n");
+            yaml.append("        icon: \"icons/preset").append(i).append(".png\"\n");
+            yaml.append("        motdFrames:\n");
+            for (int frame = 0; frame < 2; frame++) {
+                String second = placeholders
+                        ? "<gray>Online <white>%online%</white>/<white>%max%</white> • %time%</gray>"
+                        : "<gray>Survival • <white>1.21.x</white> • frame " + frame + "</gray>";
+                yaml.append("          - \"<gradient:#7CFFB2:#2ED1FF><bold>PRESET ")
+                        .append(i)
+                        .append("</bold></gradient>\\n")
+                        .append(second)
+                        .append("\"\n");
+            }
+        }
+        return yaml.toString();
+    }
+
+    private static File createDataFolder() {
+        try {
+            File dataFolder = Files.createTempDirectory("bettermotd-bench").toFile();
+            File icons = new File(dataFolder, "icons");
+            Files.createDirectories(icons.toPath());
+            writeIcon(new File(icons, "default.png"), 0);
+            for (int i = 0; i < PRESET_COUNT; i++) {
+                writeIcon(new File(icons, "preset" + i + ".png"), i + 1);
+            }
+            return dataFolder;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A valid 64x64 PNG; a distinct {@code shade} per file keeps the icons from being shared as duplicates. */
+    private static void writeIcon(File target, int shade) throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xFF000000 | shade);
+        ImageIO.write(image, "png", target);
+    }
+
+    private static Logger quietLogger() {
+        Logger logger = Logger.getLogger("BetterMOTD-bench");
+        logger.setLevel(Level.WARNING);
+        return logger;
+    }
+
+    static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer;
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("toString")) {
+                return type.getSimpleName() + "Stub";
+            }
+            return zeroValue(method.getReturnType());
+        };
+        return type.cast(Proxy.newProxyInstance(BenchFixtures.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object zeroValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0d;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return type == void.class ? null : 0;
+    }
+
+    /** Plain Bukkit event: no component MOTD support, so the legacy serializer path is exercised. */
+    static final class BukkitPingEvent extends ServerListPingEvent {
+
+        BukkitPingEvent(InetAddress address) {
+            super("play.example.net", address, Component.text("A Minecraft Server"), BASE_ONLINE, BASE_MAX);
+        }
+
+        @Override
+        public void setServerIcon(CachedServerIcon icon) {
+            // The Bukkit base event rejects icons; accept them so icon lookup stays in the measurement.
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package bettermotd;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import net.kyori.adventure.text.Component;
+import org.bukkit.event.server.ServerListPingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Paper calls of one ping (MOTD component, online count, hidden players, empty sample): {@link PaperPingAdapter}
+ * on its typed and method handle paths against the {@link Method#invoke} adapter it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaperAdapterBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger("PaperAdapterBenchmark");
+
+    private ServerListPingEvent event;
+    private Component motd;
+    private PaperPingAdapter typed;
+    private PaperPingAdapter methodHandles;
+    private ReflectiveAdapter reflective;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        event = BenchFixtures.newEvents(1, true)[0];
+        motd = Component.text("BetterMOTD");
+        typed = new PaperPingAdapter(LOGGER);
+        methodHandles = PaperPingAdapter.withMethodHandles(LOGGER);
+        reflective = new ReflectiveAdapter();
+    }
+
+    @Benchmark
+    public boolean typed() {
+        return apply(typed);
+    }
+
+    @Benchmark
+    public boolean methodHandles() {
+        return apply(methodHandles);
+    }
+
+    @Benchmark
+    public boolean reflection() {
+        boolean applied = reflective.applyMotd(event, motd);
+        applied &= reflective.applyOnlinePlayers(event, BenchFixtures.BASE_ONLINE);
+        applied &= reflective.applyHidePlayers(event, false);
+        return applied & reflective.applyDisableHover(event);
+    }
+
+    private boolean apply(PaperPingAdapter adapter) {
+        boolean applied = adapter.applyMotd(event, motd);
+        applied &= adapter.applyOnlinePlayers(event, BenchFixtures.BASE_ONLINE);
+        applied &= adapter.applyHidePlayers(event, false);
+        return applied & adapter.applyDisableHover(event);
+    }
+
+    /** The pre-method-handle adapter, kept here as the baseline. */
+    static final class ReflectiveAdapter {
+        private final Class<?> paperEventClass;
+        private final Method motdMethod;
+        private final Method hidePlayersMethod;
+        private final Method setPlayerSampleMethod;
+        private final Method setNumPlayersMethod;
+
+        ReflectiveAdapter() {
+            try {
+                paperEventClass = Class.forName(PaperPingAdapter.PAPER_EVENT_CLASS);
+                motdMethod = paperEventClass.getMethod("motd", Component.class);
+                hidePlayersMethod = paperEventClass.getMethod("setHidePlayers", boolean.class);
+                setPlayerSampleMethod = find("setPlayerSample", java.util.Collection.class);
+                setNumPlayersMethod = find("setNumPlayers", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        boolean applyMotd(ServerListPingEvent event, Component component) {
+            return invoke(motdMethod, event, component);
+        }
+
+        boolean applyOnlinePlayers(ServerListPingEvent event, int online) {
+            return invoke(setNumPlayersMethod, event, Math.max(0, online));
+        }
+
+        boolean applyHidePlayers(ServerListPingEvent event, boolean hide) {
+            return invoke(hidePlayersMethod, event, hide);
+        }
+
+        boolean applyDisableHover(ServerListPingEvent event) {
+            return invoke(setPlayerSampleMethod, event, List.of());
+        }
+
+        private boolean invoke(Method method, ServerListPingEvent event, Object argument) {
+            if (!paperEventClass.isInstance(event) || method == null) {
+                return false;
+            }
+            try {
+                method.invoke(event, argument);
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private Method find(String name, Class<?> parameter) {
+            for (Method method : paperEventClass.getMethods()) {
+                if (!method.getName().equals(name)) continue;
+
+                Class<?>[] params = method.getParameterTypes();
+                if (params.length == 1 && parameter.isAssignableFrom(params[0])) {
+                    return method;
+                }
+            }
+            return null;
+        }
+    }
+}
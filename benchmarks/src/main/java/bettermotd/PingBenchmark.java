@@ -0,0 +1,70 @@
+package bettermotd;
+
+import java.util.concurrent.TimeUnit;
+import org.bukkit.event.server.ServerListPingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end cost of {@link MotdService#apply(ServerListPingEvent)}: preset selection, sticky state, player counts,
+ * rendering, the Paper adapter (or the legacy serializer) and icon lookup. Each invocation is one ping from the next
+ * client in a fixed pool of addresses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PingBenchmark {
+
+    @Param({"RANDOM", "STICKY_PER_IP", "HASHED_PER_IP", "ROTATE"})
+    public String selectionMode;
+
+    @Param({"false", "true"})
+    public boolean placeholders;
+
+    @Param({"true", "false"})
+    public boolean paperEvent;
+
+    @Param({"4096"})
+    public int clients;
+
+    private MotdService service;
+    private ServerListPingEvent[] events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = BenchFixtures.newService(selectionMode, placeholders);
+        events = BenchFixtures.newEvents(clients, paperEvent);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public ServerListPingEvent ping(Cursor cursor) {
+        ServerListPingEvent event = events[cursor.next];
+        cursor.next = cursor.next + 1 == events.length ? 0 : cursor.next + 1;
+        service.apply(event);
+        return event;
+    }
+}
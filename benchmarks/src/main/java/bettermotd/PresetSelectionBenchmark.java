@@ -0,0 +1,79 @@
+package bettermotd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Weighted preset picks: the alias table used by {@link MotdService} against the linear cumulative-weight scan it
+ * replaced. Weights are uneven so the scan does not exit early on average.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PresetSelectionBenchmark {
+
+    @Param({"4", "40", "200"})
+    public int presetCount;
+
+    private List<Preset> presets;
+    private PresetSampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        presets = new ArrayList<>(presetCount);
+        for (int i = 0; i < presetCount; i++) {
+            presets.add(new Preset("preset-" + i, 1 + random.nextInt(100), null, List.of("line"), List.of()));
+        }
+        sampler = PresetSampler.of(presets);
+    }
+
+    @State(Scope.Thread)
+    public static class Seeds {
+        long next = 0x9E3779B97F4A7C15L;
+    }
+
+    @Benchmark
+    public Preset aliasTable(Seeds seeds) {
+        return sampler.pick(seeds.next++);
+    }
+
+    @Benchmark
+    public Preset linearScan(Seeds seeds) {
+        return linearPick(presets, seeds.next++);
+    }
+
+    /** The pre-alias-table implementation, kept here as the baseline. */
+    private static Preset linearPick(List<Preset> presets, long seed) {
+        int total = 0;
+        for (Preset p : presets) {
+            total += Math.max(1, p.weight());
+        }
+        int r = Math.floorMod(seed, total);
+        int acc = 0;
+        for (Preset p : presets) {
+            acc += Math.max(1, p.weight());
+            if (r < acc) {
+                return p;
+            }
+        }
+        return presets.get(0);
+    }
+}
@@ -0,0 +1,105 @@
+package bettermotd;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sticky lookup-or-insert for one ping: {@link StickyTable} keyed by packed addresses against the previous
+ * {@code ConcurrentHashMap<String, StickyEntry>} keyed by {@code getHostAddress()} strings. Both start from the
+ * {@link InetAddress} of the ping, so the string formatting is part of the baseline cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StickyStoreBenchmark {
+
+    private static final long TTL_SECONDS = 3600;
+
+    @Param({"10000", "100000"})
+    public int clients;
+
+    @Param({"false", "true"})
+    public boolean ipv6;
+
+    private InetAddress[] addresses;
+    private StickyTable table;
+    private Map<String, LegacyEntry> legacyEntries;
+    private ConcurrentLinkedDeque<String> legacyOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws UnknownHostException {
+        addresses = new InetAddress[clients];
+        for (int i = 0; i < clients; i++) {
+            String host = ipv6
+                    ? "2001:db8::" + Integer.toHexString(i >>> 16) + ":" + Integer.toHexString(i & 0xFFFF)
+                    : "10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+            addresses[i] = InetAddress.getByName(host);
+        }
+        table = new StickyTable(clients, TTL_SECONDS);
+        legacyEntries = new ConcurrentHashMap<>();
+        legacyOrder = new ConcurrentLinkedDeque<>();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        long nowSeconds = 1_000_000L;
+    }
+
+    @Benchmark
+    public long stickyTable(Cursor cursor) {
+        InetAddress address = next(cursor);
+        long hi = PackedIp.hi(address);
+        long lo = PackedIp.lo(address);
+        long entry = table.get(hi, lo, cursor.nowSeconds);
+        if (entry == StickyTable.MISSING) {
+            entry = table.put(hi, lo, cursor.next & 7, cursor.nowSeconds, cursor.next);
+        }
+        return entry;
+    }
+
+    @Benchmark
+    public LegacyEntry legacyMap(Cursor cursor) {
+        String ip = next(cursor).getHostAddress();
+        long nowMs = cursor.nowSeconds * 1000L;
+        LegacyEntry entry = legacyEntries.get(ip);
+        if (entry != null && nowMs - entry.createdAtMs() > TTL_SECONDS * 1000L) {
+            legacyEntries.remove(ip, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new LegacyEntry(cursor.next & 7, nowMs, cursor.next);
+            if (legacyEntries.put(ip, entry) == null) {
+                legacyOrder.addLast(ip);
+            }
+        }
+        return entry;
+    }
+
+    private InetAddress next(Cursor cursor) {
+        InetAddress address = addresses[cursor.next];
+        cursor.next = cursor.next + 1 == addresses.length ? 0 : cursor.next + 1;
+        return address;
+    }
+
+    public record LegacyEntry(int presetIndex, long createdAtMs, int frameSeed) {}
+}
@@ -5,13 +5,13 @@ import java.io.IOException;
 import java.util.logging.Logger;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.Plugin;
 
 public final class ActiveProfileStore {
 
     private final File stateFile;
 
-    public ActiveProfileStore(JavaPlugin plugin) {
+    public ActiveProfileStore(Plugin plugin) {
         this.stateFile = new File(plugin.getDataFolder(), "state.yml");
     }
 
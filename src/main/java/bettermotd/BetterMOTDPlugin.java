@@ -6,6 +6,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 public final class BetterMOTDPlugin extends JavaPlugin {
 
     private MotdService motdService;
+    private PingRecording pingRecording;
 
     @Override
     public void onEnable() {
@@ -14,12 +15,14 @@ public final class BetterMOTDPlugin extends JavaPlugin {
         ActiveProfileStore profileStore = new ActiveProfileStore(this);
         this.motdService = new MotdService(this, profileStore);
         MotdService.ReloadResult result = this.motdService.reload();
+        this.motdService.restoreStickyState();
 
         getServer().getPluginManager().registerEvents(new ServerPingListener(motdService), this);
 
         PluginCommand command = getCommand("bettermotd");
         if (command != null) {
-            CommandHandler handler = new CommandHandler(this, motdService);
+            this.pingRecording = new PingRecording(getDataFolder().toPath());
+            CommandHandler handler = new CommandHandler(this, motdService, pingRecording);
             command.setExecutor(handler);
             command.setTabCompleter(handler);
         } else {
@@ -32,13 +35,11 @@ public final class BetterMOTDPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (pingRecording != null) {
+            pingRecording.close();
+        }
         if (motdService != null) {
             motdService.shutdown();
         }
     }
-
-    public MotdService.ReloadResult reloadAll() {
-        reloadConfig();
-        return motdService.reload();
-    }
 }
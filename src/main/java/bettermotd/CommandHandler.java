@@ -1,10 +1,14 @@
 package bettermotd;
 
+import java.io.IOException;
 import java.net.InetAddress;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -15,14 +19,17 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 public final class CommandHandler implements CommandExecutor, TabCompleter {
 
-    private static final List<String> SUBCOMMANDS = List.of("reload", "profile", "preview", "diagnostics");
+    private static final List<String> SUBCOMMANDS = List.of("reload", "profile", "preview", "diagnostics", "jfr");
+    private static final List<String> JFR_ACTIONS = List.of("start", "stop");
 
     private final JavaPlugin plugin;
     private final MotdService motdService;
+    private final PingRecording recording;
 
-    public CommandHandler(JavaPlugin plugin, MotdService motdService) {
+    public CommandHandler(JavaPlugin plugin, MotdService motdService, PingRecording recording) {
         this.plugin = plugin;
         this.motdService = motdService;
+        this.recording = recording;
     }
 
     @Override
@@ -48,6 +55,7 @@ public final class CommandHandler implements CommandExecutor, TabCompleter {
                 case "profile" -> handleProfile(sender, args);
                 case "preview" -> handlePreview(sender, args);
                 case "diagnostics" -> handleDiagnostics(sender);
+                case "jfr" -> handleJfr(sender, args);
                 default -> {
                     sendUsage(sender);
                     yield true;
@@ -61,13 +69,30 @@ public final class CommandHandler implements CommandExecutor, TabCompleter {
     }
 
     private boolean handleReload(CommandSender sender) {
-        MotdService.ReloadResult result = reloadAll();
+        sender.sendMessage("Reloading BetterMOTD...");
+        motdService.reloadAsync().thenAccept(result -> {
+            if (plugin.isEnabled()) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> reportReload(sender, result));
+            }
+        });
+        return true;
+    }
+
+    private void reportReload(CommandSender sender, MotdService.ReloadResult result) {
         if (result.success()) {
             sender.sendMessage("BetterMOTD reloaded successfully (warnings: " + result.warnings() + ").");
         } else {
-            sender.sendMessage("BetterMOTD reload failed. Check server logs.");
+            sender.sendMessage("BetterMOTD reload failed; the previous config stays active. Check server logs.");
         }
-        return true;
+        StringBuilder stages = new StringBuilder("- stages:");
+        for (Map.Entry<MotdService.ReloadStage, Long> entry :
+                result.stageNanos().entrySet()) {
+            stages.append(' ')
+                    .append(entry.getKey().name().toLowerCase(Locale.ROOT))
+                    .append(String.format(Locale.ROOT, " %.1f ms,", entry.getValue() / 1_000_000.0));
+        }
+        stages.append(String.format(Locale.ROOT, " total %.1f ms", result.totalNanos() / 1_000_000.0));
+        sender.sendMessage(stages.toString());
     }
 
     private boolean handleProfile(CommandSender sender, String[] args) {
@@ -141,10 +166,120 @@ public final class CommandHandler implements CommandExecutor, TabCompleter {
         MotdService.Diagnostics diagnostics = motdService.diagnostics();
         sender.sendMessage("BetterMOTD diagnostics:");
         sender.sendMessage("- active profile: " + diagnostics.activeProfile());
-        sender.sendMessage("- sticky entries by profile: " + diagnostics.stickyEntriesByProfile());
+        String snapshotProfile = diagnostics.snapshotProfile();
+        sender.sendMessage("- response snapshot: "
+                + (snapshotProfile != null ? "active for '" + snapshotProfile + "'" : "inactive") + ", "
+                + diagnostics.snapshotHits() + " pings served");
+        if (diagnostics.stickyByProfile().isEmpty()) {
+            sender.sendMessage("- sticky entries: none");
+        }
+        for (Map.Entry<String, StickyTable.Stats> entry :
+                diagnostics.stickyByProfile().entrySet()) {
+            StickyTable.Stats sticky = entry.getValue();
+            sender.sendMessage("- sticky '" + entry.getKey() + "': " + sticky.size() + " entries, hits " + sticky.hits()
+                    + ", misses " + sticky.misses() + ", admission rejects " + sticky.admissionRejects()
+                    + ", evictions " + sticky.evictions()
+                    + String.format(Locale.ROOT, " (hit rate %.1f%%)", sticky.hitRate() * 100.0));
+        }
+        StickySweeper.Stats sweeper = diagnostics.stickySweeper();
+        if (sweeper != null) {
+            sender.sendMessage("- sticky sweeper: every " + sweeper.intervalMillis() + " ms, " + sweeper.sweeps()
+                    + " sweeps, last removed " + sweeper.lastRemoved()
+                    + String.format(
+                            Locale.ROOT,
+                            " in %.2f ms (max %.2f ms)",
+                            sweeper.lastDurationNanos() / 1_000_000.0,
+                            sweeper.maxDurationNanos() / 1_000_000.0));
+        }
+        PingRateLimiter.Stats rateLimit = diagnostics.rateLimit();
+        if (rateLimit == null) {
+            sender.sendMessage("- rate limit: disabled");
+        } else {
+            sender.sendMessage("- rate limit: " + rateLimit.throttled() + " throttled pings ("
+                    + rateLimit.throttledByIp() + " per IP, " + rateLimit.throttledByPrefix() + " per prefix), "
+                    + rateLimit.activeIps() + " active IP buckets, " + rateLimit.activePrefixes()
+                    + " active prefix buckets");
+        }
         sender.sendMessage("- rotate counters: " + diagnostics.rotateCounterProfiles());
         sender.sendMessage("- preset cache size: " + diagnostics.presetCacheSize());
         sender.sendMessage("- formatter warnings cached: " + diagnostics.formatWarnings());
+        RenderCache.Stats renderCache = diagnostics.renderCache();
+        sender.sendMessage("- render cache: " + renderCache.size() + "/" + renderCache.maxSize() + " entries, hits "
+                + renderCache.hits() + ", misses " + renderCache.misses() + ", evictions " + renderCache.evictions()
+                + String.format(Locale.ROOT, " (hit rate %.1f%%)", renderCache.hitRate() * 100.0));
+        IconLru.Stats lazyIcons = diagnostics.lazyIcons();
+        if (lazyIcons == null) {
+            sender.sendMessage("- icons: " + diagnostics.loadedIcons() + " loaded");
+        } else {
+            sender.sendMessage("- icons (lazy): " + lazyIcons.size() + "/" + lazyIcons.maxEntries() + " files, "
+                    + lazyIcons.bytes() / 1024 + " KiB"
+                    + (lazyIcons.maxBytes() > 0 ? "/" + lazyIcons.maxBytes() / 1024 + " KiB" : "") + ", "
+                    + lazyIcons.loads() + " loaded on demand, " + lazyIcons.evictions() + " evictions");
+        }
+        for (Map.Entry<String, PingTimings.Stats> entry :
+                diagnostics.pingTimings().entrySet()) {
+            PingTimings.Stats timings = entry.getValue();
+            sender.sendMessage("- pings '" + entry.getKey() + "': " + timings.pings() + " handled, "
+                    + String.format(
+                            Locale.ROOT,
+                            "%.1f/s over the last %.1f s",
+                            timings.ratePerSecond(),
+                            timings.rateWindowMillis() / 1000.0));
+            for (PingTimings.StageStats stage : timings.stages()) {
+                sender.sendMessage("  " + stage.stage().label() + ": "
+                        + String.format(
+                                Locale.ROOT,
+                                "p50 %.1f us, p99 %.1f us, p99.9 %.1f us",
+                                stage.p50Nanos() / 1000.0,
+                                stage.p99Nanos() / 1000.0,
+                                stage.p999Nanos() / 1000.0));
+            }
+        }
+        return true;
+    }
+
+    private boolean handleJfr(CommandSender sender, String[] args) {
+        String action = args.length >= 2 ? args[1].toLowerCase(Locale.ROOT) : "";
+        switch (action) {
+            case "start" -> {
+                int seconds = PingRecording.DEFAULT_SECONDS;
+                if (args.length >= 3) {
+                    try {
+                        seconds = Integer.parseInt(args[2]);
+                    } catch (NumberFormatException e) {
+                        seconds = -1;
+                    }
+                    if (seconds < 1 || seconds > PingRecording.MAX_SECONDS) {
+                        sender.sendMessage("Seconds must be between 1 and " + PingRecording.MAX_SECONDS + ".");
+                        return true;
+                    }
+                }
+                try {
+                    Path file = recording.start(Duration.ofSeconds(seconds));
+                    if (file == null) {
+                        sender.sendMessage("A recording is already running; stop it first.");
+                    } else {
+                        sender.sendMessage("Recording pings for " + seconds + " s to " + file.getFileName() + ".");
+                    }
+                } catch (IOException | RuntimeException e) {
+                    plugin.getLogger().warning("Failed to start JFR recording: " + e.getMessage());
+                    sender.sendMessage("Failed to start the recording. Check server logs for details.");
+                }
+            }
+            case "stop" -> {
+                Path file = recording.stop();
+                sender.sendMessage(
+                        file != null ? "Recording written to " + file.getFileName() + "." : "No recording is running.");
+            }
+            default -> {
+                Path running = recording.running();
+                sender.sendMessage(
+                        running != null
+                                ? "Recording pings to " + running.getFileName() + "."
+                                : "No recording is running.");
+                sender.sendMessage("Usage: /bettermotd jfr <start [seconds]|stop>");
+            }
+        }
         return true;
     }
 
@@ -159,15 +294,7 @@ public final class CommandHandler implements CommandExecutor, TabCompleter {
     }
 
     private void sendUsage(CommandSender sender) {
-        sender.sendMessage("Usage: /bettermotd <reload|profile|preview|diagnostics>");
-    }
-
-    private MotdService.ReloadResult reloadAll() {
-        if (plugin instanceof BetterMOTDPlugin betterPlugin) {
-            return betterPlugin.reloadAll();
-        }
-        plugin.reloadConfig();
-        return motdService.reload();
+        sender.sendMessage("Usage: /bettermotd <reload|profile|preview|diagnostics|jfr>");
     }
 
     @Override
@@ -185,6 +312,9 @@ public final class CommandHandler implements CommandExecutor, TabCompleter {
             }
             return filterStartsWith(entries, args[1]);
         }
+        if (args.length == 2 && "jfr".equalsIgnoreCase(args[0])) {
+            return filterStartsWith(JFR_ACTIONS, args[1]);
+        }
         return Collections.emptyList();
     }
 
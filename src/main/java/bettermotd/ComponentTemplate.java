@@ -0,0 +1,283 @@
+package bettermotd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import net.kyori.adventure.text.TextComponent;
+
+/**
+ * A frame parsed once at reload into components with placeholder slots in their text leaves. Values that are fixed
+ * for the frame (preset, profile, frame index, version) are bound at compile time; the remaining slots are parsed as
+ * marker characters and substituted per ping without running the formatter again.
+ *
+ * <p>Lines whose appearance depends on the substituted text are re-parsed per ping instead: lines with per-character
+ * colouring (gradients, rainbows, transitions) individually, and the whole frame when a slot sits where its value
+ * could change how the frame is parsed (next to a legacy colour code or inside a tag).
+ */
+final class ComponentTemplate {
+
+    private static final String[] PER_CHARACTER_TAGS = {"<gradient", "<rainbow", "<transition"};
+    private static final int HEX_DIGITS = 6;
+
+    private final TextFormatService formatter;
+    private final ColorFormat configuredFormat;
+    private final TextFormatService.ParseResult staticResult;
+    private final PlaceholderTemplate frameReparse;
+    private final Line[] lines;
+    private final boolean multiLine;
+    private final ColorFormat usedFormat;
+
+    private ComponentTemplate(
+            TextFormatService formatter,
+            ColorFormat configuredFormat,
+            TextFormatService.ParseResult staticResult,
+            PlaceholderTemplate frameReparse,
+            Line[] lines,
+            boolean multiLine,
+            ColorFormat usedFormat) {
+        this.formatter = formatter;
+        this.configuredFormat = configuredFormat;
+        this.staticResult = staticResult;
+        this.frameReparse = frameReparse;
+        this.lines = lines;
+        this.multiLine = multiLine;
+        this.usedFormat = usedFormat;
+    }
+
+    /**
+     * Compiles {@code template}. {@code bound} is indexed by slot: non-null entries are fixed for this frame and are
+     * substituted now, null entries stay dynamic.
+     */
+    static ComponentTemplate compile(
+            PlaceholderTemplate template, String[] bound, ColorFormat format, TextFormatService formatter) {
+        String[] compileValues = new String[bound.length];
+        boolean dynamic = false;
+        boolean safeBindings = true;
+        for (int slot = 0; slot < bound.length; slot++) {
+            if (!template.uses(slot)) {
+                continue;
+            }
+            if (bound[slot] != null) {
+                compileValues[slot] = bound[slot];
+                safeBindings &= bound[slot].indexOf('\n') < 0 && !PlaceholderTemplate.containsMarker(bound[slot]);
+            } else {
+                compileValues[slot] = PlaceholderTemplate.marker(slot);
+                dynamic = true;
+            }
+        }
+
+        String marked = template.render(compileValues);
+        if (!dynamic) {
+            return fixed(formatter, format, formatter.parseToComponentDetailed(marked, format));
+        }
+        if (!safeBindings || !markersAreTextOnly(marked)) {
+            return new ComponentTemplate(
+                    formatter, format, null, PlaceholderTemplate.compileMarked(marked), null, false, format);
+        }
+
+        ColorFormat resolved = formatter.resolveFormat(marked, format);
+        String[] rawLines = marked.split("\n", -1);
+        Line[] lines = new Line[rawLines.length];
+        for (int i = 0; i < rawLines.length; i++) {
+            lines[i] = compileLine(rawLines[i], resolved, formatter);
+        }
+        return new ComponentTemplate(formatter, format, null, null, lines, rawLines.length > 1, resolved);
+    }
+
+    static ComponentTemplate fixed(
+            TextFormatService formatter, ColorFormat format, TextFormatService.ParseResult result) {
+        return new ComponentTemplate(formatter, format, result, null, null, false, result.usedFormat());
+    }
+
+    boolean isStatic() {
+        return staticResult != null;
+    }
+
+    TextFormatService.ParseResult staticResult() {
+        return staticResult;
+    }
+
+    /** Renders the frame; {@code values} is indexed by slot and must hold every dynamic slot of the frame. */
+    TextFormatService.ParseResult render(String[] values) {
+        if (staticResult != null) {
+            return staticResult;
+        }
+        if (frameReparse != null) {
+            return formatter.parseToComponentDetailed(frameReparse.render(values), configuredFormat);
+        }
+
+        boolean fallback = false;
+        Component single = null;
+        List<Component> parts = multiLine ? new ArrayList<>(lines.length) : null;
+        for (Line line : lines) {
+            Component component;
+            switch (line) {
+                case FixedLine fixed -> {
+                    component = fixed.component();
+                    fallback |= fixed.fallbackUsed();
+                }
+                case SlottedLine slotted -> {
+                    component = slotted.root().render(values);
+                    fallback |= slotted.fallbackUsed();
+                }
+                case ReparsedLine reparsed -> {
+                    TextFormatService.ParseResult result =
+                            formatter.parseSingleLine(reparsed.template().render(values), usedFormat);
+                    component = result.component();
+                    fallback |= result.fallbackUsed();
+                }
+            }
+            if (parts != null) {
+                parts.add(component);
+            } else {
+                single = component;
+            }
+        }
+        Component joined = parts != null ? Component.join(JoinConfiguration.newlines(), parts) : single;
+        return new TextFormatService.ParseResult(joined, usedFormat, fallback);
+    }
+
+    private static Line compileLine(String line, ColorFormat resolved, TextFormatService formatter) {
+        TextFormatService.ParseResult parsed = formatter.parseSingleLine(line, resolved);
+        if (!PlaceholderTemplate.containsMarker(line)) {
+            return new FixedLine(parsed.component(), parsed.fallbackUsed());
+        }
+        PlaceholderTemplate lineTemplate = PlaceholderTemplate.compileMarked(line);
+        if (hasPerCharacterStyling(line)) {
+            return new ReparsedLine(lineTemplate);
+        }
+        SlotNode root = SlotNode.of(parsed.component());
+        if (root == null || root.slotCount() != lineTemplate.slotCount()) {
+            // Some markers ended up outside plain text (hover text, click values, ...).
+            return new ReparsedLine(lineTemplate);
+        }
+        return new SlottedLine(root, parsed.fallbackUsed());
+    }
+
+    private static boolean hasPerCharacterStyling(String line) {
+        String lower = line.toLowerCase(Locale.ROOT);
+        for (String tag : PER_CHARACTER_TAGS) {
+            if (lower.contains(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True when every marker is plain text: not directly after a legacy colour character, not inside an unfinished
+     * {@code &#RRGGBB} code and not inside an unclosed {@code <...>} tag, so no value can change how the frame parses.
+     */
+    private static boolean markersAreTextOnly(String marked) {
+        int lineStart = 0;
+        for (int i = 0; i < marked.length(); i++) {
+            char c = marked.charAt(i);
+            if (c == '\n') {
+                lineStart = i + 1;
+                continue;
+            }
+            if (PlaceholderTemplate.markerSlot(c) >= 0
+                    && (extendsLegacyCode(marked, lineStart, i) || insideTag(marked, lineStart, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean extendsLegacyCode(String marked, int lineStart, int index) {
+        if (index > lineStart && isLegacyCodeChar(marked.charAt(index - 1))) {
+            return true;
+        }
+        int j = index - 1;
+        while (j >= lineStart && index - j <= HEX_DIGITS && Character.digit(marked.charAt(j), 16) >= 0) {
+            j--;
+        }
+        return j > lineStart && marked.charAt(j) == '#' && isLegacyCodeChar(marked.charAt(j - 1));
+    }
+
+    private static boolean isLegacyCodeChar(char c) {
+        return c == '&' || c == '§';
+    }
+
+    private static boolean insideTag(String marked, int lineStart, int index) {
+        for (int j = index - 1; j >= lineStart; j--) {
+            char c = marked.charAt(j);
+            if (c == '>') {
+                return false;
+            }
+            if (c == '<') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private sealed interface Line permits FixedLine, SlottedLine, ReparsedLine {}
+
+    private record FixedLine(Component component, boolean fallbackUsed) implements Line {}
+
+    private record SlottedLine(SlotNode root, boolean fallbackUsed) implements Line {}
+
+    private record ReparsedLine(PlaceholderTemplate template) implements Line {}
+
+    /**
+     * Mirror of the part of a component tree that contains slots. {@code children} is aligned with the component's
+     * children; null entries are reused as they are.
+     */
+    private record SlotNode(Component component, PlaceholderTemplate content, SlotNode[] children) {
+
+        static SlotNode of(Component component) {
+            PlaceholderTemplate content = null;
+            if (component instanceof TextComponent text && PlaceholderTemplate.containsMarker(text.content())) {
+                content = PlaceholderTemplate.compileMarked(text.content());
+            }
+            List<Component> children = component.children();
+            SlotNode[] childNodes = null;
+            for (int i = 0; i < children.size(); i++) {
+                SlotNode child = of(children.get(i));
+                if (child == null) {
+                    continue;
+                }
+                if (childNodes == null) {
+                    childNodes = new SlotNode[children.size()];
+                }
+                childNodes[i] = child;
+            }
+            if (content == null && childNodes == null) {
+                return null;
+            }
+            return new SlotNode(component, content, childNodes);
+        }
+
+        int slotCount() {
+            int count = content != null ? content.slotCount() : 0;
+            if (children != null) {
+                for (SlotNode child : children) {
+                    if (child != null) {
+                        count += child.slotCount();
+                    }
+                }
+            }
+            return count;
+        }
+
+        Component render(String[] values) {
+            Component out = component;
+            if (content != null) {
+                out = ((TextComponent) out).content(content.render(values));
+            }
+            if (children != null) {
+                List<Component> original = out.children();
+                List<Component> replaced = new ArrayList<>(original.size());
+                for (int i = 0; i < original.size(); i++) {
+                    SlotNode child = children[i];
+                    replaced.add(child == null ? original.get(i) : child.render(values));
+                }
+                out = out.children(replaced);
+            }
+            return out;
+        }
+    }
+}
@@ -21,17 +21,32 @@ public record ConfigModel(
         ColorFormat colorFormat,
         boolean debugSelfTest,
         boolean debugVerbose,
+        PerformanceSettings performance,
+        IconSettings icons,
         Map<String, Profile> profiles) {
     public static final long DEFAULT_FRAME_INTERVAL_MILLIS = 450L;
+    public static final int DEFAULT_RENDER_CACHE_SIZE = 1024;
+    public static final long DEFAULT_STICKY_SWEEP_INTERVAL_MILLIS = 1000L;
+    public static final long DEFAULT_ICON_WATCH_DEBOUNCE_MILLIS = 500L;
+    public static final int DEFAULT_LAZY_ICON_MAX_ENTRIES = 64;
     public static final List<String> FALLBACK_MOTD_LINES = List.of("BetterMOTD", "1.21.x");
 
     public static ConfigModel empty() {
-        return new ConfigModel("default", true, null, ColorFormat.AUTO, false, false, Collections.emptyMap());
+        return new ConfigModel(
+                "default",
+                true,
+                null,
+                ColorFormat.AUTO,
+                false,
+                false,
+                PerformanceSettings.defaults(),
+                IconSettings.defaults(),
+                Collections.emptyMap());
     }
 
     public static LoadResult load(FileConfiguration cfg, File dataFolder, Logger logger) {
         if (cfg == null || logger == null) {
-            return new LoadResult(empty(), 0, false, Collections.emptyMap(), Collections.emptySet());
+            return new LoadResult(empty(), 0, false, Collections.emptyMap(), Collections.emptySet(), true);
         }
 
         AtomicInteger warnings = new AtomicInteger();
@@ -50,6 +65,9 @@ public record ConfigModel(
         String activeProfile = str(cfg.getString("activeProfile"), "default");
         String fallbackIconPath = resolveFallbackIconPath(dataFolder);
         logDeprecatedSections(cfg, logger, debugVerbose);
+        PerformanceSettings performance =
+                parsePerformance(cfg.getConfigurationSection("performance"), logger, warnings);
+        IconSettings icons = parseIcons(cfg.getConfigurationSection("icons"), logger, warnings);
 
         Map<String, Profile> profiles = new LinkedHashMap<>();
         Map<String, Integer> presetCounts = new LinkedHashMap<>();
@@ -85,7 +103,8 @@ public record ConfigModel(
             }
         }
 
-        if (profiles.isEmpty()) {
+        boolean noProfilesDefined = profiles.isEmpty();
+        if (noProfilesDefined) {
             warnings.incrementAndGet();
             logger.warning("No profiles found. Using built-in fallback profile.");
             Profile fallback = fallbackProfile("default", fallbackIconPath);
@@ -108,9 +127,11 @@ public record ConfigModel(
                 colorFormat,
                 debugSelfTest,
                 debugVerbose,
+                performance,
+                icons,
                 Collections.unmodifiableMap(profiles));
 
-        return new LoadResult(model, warnings.get(), legacy, presetCounts, fallbackProfiles);
+        return new LoadResult(model, warnings.get(), legacy, presetCounts, fallbackProfiles, noProfilesDefined);
     }
 
     private static Profile parseProfile(
@@ -147,14 +168,10 @@ public record ConfigModel(
                 profileId,
                 logger,
                 warnings);
-        int stickyCleanupEvery = clampInt(
-                section.getInt("stickyCleanupEveryNPings", 500),
-                1,
-                Integer.MAX_VALUE,
-                "stickyCleanupEveryNPings",
-                profileId,
-                logger,
-                warnings);
+        if (section.contains("stickyCleanupEveryNPings")) {
+            logger.info("stickyCleanupEveryNPings in profile '" + profileId
+                    + "' is no longer used; see performance.stickySweepIntervalMillis.");
+        }
 
         boolean animEnabled = section.getBoolean("animation.enabled", true);
         long interval = section.getLong("animation.frameIntervalMillis", DEFAULT_FRAME_INTERVAL_MILLIS);
@@ -193,12 +210,92 @@ public record ConfigModel(
                 selectionMode,
                 stickyTtlSeconds,
                 stickyMaxEntries,
-                stickyCleanupEvery,
                 animation,
                 playerCount,
                 List.copyOf(presets));
     }
 
+    private static PerformanceSettings parsePerformance(
+            ConfigurationSection section, Logger logger, AtomicInteger warnings) {
+        if (section == null) {
+            return PerformanceSettings.defaults();
+        }
+        int renderCacheSize = section.getInt("renderCacheSize", DEFAULT_RENDER_CACHE_SIZE);
+        if (renderCacheSize < 0) {
+            warn(logger, warnings, "performance.renderCacheSize must be >= 0. Using 0 (disabled).");
+            renderCacheSize = 0;
+        }
+        long sweepInterval = section.getLong("stickySweepIntervalMillis", DEFAULT_STICKY_SWEEP_INTERVAL_MILLIS);
+        if (sweepInterval < 100L) {
+            warn(logger, warnings, "performance.stickySweepIntervalMillis must be >= 100. Using 100.");
+            sweepInterval = 100L;
+        }
+        RateLimitSettings rateLimit = parseRateLimit(section.getConfigurationSection("rateLimit"), logger, warnings);
+        boolean persistSticky = section.getBoolean("persistSticky", true);
+        boolean pingTimings = section.getBoolean("pingTimings", true);
+        return new PerformanceSettings(renderCacheSize, sweepInterval, rateLimit, persistSticky, pingTimings);
+    }
+
+    private static IconSettings parseIcons(ConfigurationSection section, Logger logger, AtomicInteger warnings) {
+        if (section == null) {
+            return IconSettings.defaults();
+        }
+        boolean watch = section.getBoolean("watch", false);
+        long debounce = section.getLong("watchDebounceMillis", DEFAULT_ICON_WATCH_DEBOUNCE_MILLIS);
+        if (debounce < 50L) {
+            warn(logger, warnings, "icons.watchDebounceMillis must be >= 50. Using 50.");
+            debounce = 50L;
+        }
+        boolean lazy = section.getBoolean("lazy", false);
+        int lazyMaxEntries = section.getInt("lazyMaxEntries", DEFAULT_LAZY_ICON_MAX_ENTRIES);
+        if (lazyMaxEntries < 1) {
+            warn(logger, warnings, "icons.lazyMaxEntries must be >= 1. Using 1.");
+            lazyMaxEntries = 1;
+        }
+        long lazyMaxBytes = section.getLong("lazyMaxBytes", 0L);
+        if (lazyMaxBytes < 0L) {
+            warn(logger, warnings, "icons.lazyMaxBytes must be >= 0. Using 0 (no byte limit).");
+            lazyMaxBytes = 0L;
+        }
+        return new IconSettings(watch, debounce, lazy, lazyMaxEntries, lazyMaxBytes);
+    }
+
+    private static RateLimitSettings parseRateLimit(
+            ConfigurationSection section, Logger logger, AtomicInteger warnings) {
+        RateLimitSettings defaults = RateLimitSettings.defaults();
+        if (section == null) {
+            return defaults;
+        }
+        boolean enabled = section.getBoolean("enabled", defaults.enabled());
+        int ipBurst = section.getInt("ipBurst", defaults.ipBurst());
+        double ipPerSecond = section.getDouble("ipPerSecond", defaults.ipPerSecond());
+        int prefixBurst = section.getInt("prefixBurst", defaults.prefixBurst());
+        double prefixPerSecond = section.getDouble("prefixPerSecond", defaults.prefixPerSecond());
+        if (ipBurst < 1) {
+            warn(logger, warnings, "performance.rateLimit.ipBurst must be >= 1. Using 1.");
+            ipBurst = 1;
+        }
+        if (prefixBurst < 1) {
+            warn(logger, warnings, "performance.rateLimit.prefixBurst must be >= 1. Using 1.");
+            prefixBurst = 1;
+        }
+        if (!(ipPerSecond > 0.0)) {
+            warn(
+                    logger,
+                    warnings,
+                    "performance.rateLimit.ipPerSecond must be > 0. Using " + defaults.ipPerSecond() + ".");
+            ipPerSecond = defaults.ipPerSecond();
+        }
+        if (!(prefixPerSecond > 0.0)) {
+            warn(
+                    logger,
+                    warnings,
+                    "performance.rateLimit.prefixPerSecond must be > 0. Using " + defaults.prefixPerSecond() + ".");
+            prefixPerSecond = defaults.prefixPerSecond();
+        }
+        return new RateLimitSettings(enabled, ipBurst, ipPerSecond, prefixBurst, prefixPerSecond);
+    }
+
     private static Profile.PlayerCountSettings parsePlayerCount(
             ConfigurationSection section, String profileId, Logger logger, AtomicInteger warnings) {
         if (section == null) {
@@ -372,7 +469,10 @@ public record ConfigModel(
                 weight = 1;
             }
 
-            String icon = resolveIcon(map.get("icon"), dataFolder, logger, fallbackIconPath, id, profileId, warnings);
+            List<String> iconFrames =
+                    resolveIconFrames(strList(map.get("iconFrames")), dataFolder, logger, id, profileId, warnings);
+            Object rawIcon = map.get("icon") == null && !iconFrames.isEmpty() ? iconFrames.get(0) : map.get("icon");
+            String icon = resolveIcon(rawIcon, dataFolder, logger, fallbackIconPath, id, profileId, warnings);
 
             List<String> motd = normalizeMotdLines(strList(map.get("motd")), profileId, id, logger, warnings);
             List<String> motdFrames = normalizeFrames(strList(map.get("motdFrames")), profileId, id, logger, warnings);
@@ -385,7 +485,7 @@ public record ConfigModel(
                 continue;
             }
 
-            presets.add(new Preset(id, weight, icon, motd, motdFrames));
+            presets.add(new Preset(id, weight, icon, motd, motdFrames, iconFrames));
         }
 
         return presets;
@@ -459,7 +559,6 @@ public record ConfigModel(
                 SelectionMode.STICKY_PER_IP,
                 10,
                 10000,
-                500,
                 animation,
                 playerCount,
                 List.of(Preset.fallback(fallbackIconPath)));
@@ -516,6 +615,36 @@ public record ConfigModel(
         return normalized;
     }
 
+    /** The normalized paths of {@code frames}; missing files are left out with a warning. */
+    private static List<String> resolveIconFrames(
+            List<String> frames,
+            File dataFolder,
+            Logger logger,
+            String presetId,
+            String profileId,
+            AtomicInteger warnings) {
+        if (frames == null || frames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> out = new ArrayList<>(frames.size());
+        for (String frame : frames) {
+            String normalized = IconCache.normalizeIconPath(frame);
+            if (normalized == null) {
+                continue;
+            }
+            if (dataFolder != null && !new File(dataFolder, normalized).isFile()) {
+                warn(
+                        logger,
+                        warnings,
+                        "Preset '" + presetId + "' in profile '" + profileId + "' icon frame not found: "
+                                + new File(dataFolder, normalized).getPath() + ". Skipping.");
+                continue;
+            }
+            out.add(normalized);
+        }
+        return Collections.unmodifiableList(out);
+    }
+
     private static String str(Object o, String def) {
         if (o == null) {
             return def;
@@ -596,12 +725,58 @@ public record ConfigModel(
         return value;
     }
 
+    /**
+     * {@code persistSticky} saves sticky entries on shutdown and restores them on startup; {@code pingTimings} records
+     * per-stage ping latency for diagnostics.
+     */
+    public record PerformanceSettings(
+            int renderCacheSize,
+            long stickySweepIntervalMillis,
+            RateLimitSettings rateLimit,
+            boolean persistSticky,
+            boolean pingTimings) {
+        public static PerformanceSettings defaults() {
+            return new PerformanceSettings(
+                    DEFAULT_RENDER_CACHE_SIZE,
+                    DEFAULT_STICKY_SWEEP_INTERVAL_MILLIS,
+                    RateLimitSettings.defaults(),
+                    true,
+                    true);
+        }
+    }
+
+    /**
+     * Token buckets per client address and per /24 (IPv4) or /48 (IPv6) prefix. Off by default: clients behind a
+     * shared NAT or proxy share one budget.
+     */
+    public record RateLimitSettings(
+            boolean enabled, int ipBurst, double ipPerSecond, int prefixBurst, double prefixPerSecond) {
+        public static RateLimitSettings defaults() {
+            return new RateLimitSettings(false, 16, 4.0, 128, 32.0);
+        }
+    }
+
+    /**
+     * {@code watch} re-decodes icons changed in the icons directory without a reload. {@code lazy} only decodes the
+     * active profile's icons at reload and others when their profile is activated, keeping at most
+     * {@code lazyMaxEntries} files and, unless 0, {@code lazyMaxBytes} of decoded frames.
+     */
+    public record IconSettings(
+            boolean watch, long watchDebounceMillis, boolean lazy, int lazyMaxEntries, long lazyMaxBytes) {
+        public static IconSettings defaults() {
+            return new IconSettings(
+                    false, DEFAULT_ICON_WATCH_DEBOUNCE_MILLIS, false, DEFAULT_LAZY_ICON_MAX_ENTRIES, 0L);
+        }
+    }
+
+    /** {@code noProfilesDefined} is true when the config had no profile and the built-in fallback was used. */
     public record LoadResult(
             ConfigModel config,
             int warnings,
             boolean legacy,
             Map<String, Integer> presetCounts,
-            Set<String> fallbackProfiles) {}
+            Set<String> fallbackProfiles,
+            boolean noProfilesDefined) {}
 
     public enum SelectionMode {
         RANDOM,
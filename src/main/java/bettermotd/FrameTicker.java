@@ -0,0 +1,72 @@
+package bettermotd;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongUnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a task on a daemon thread at times the task picks itself, such as the next animation frame boundary. The task
+ * gets the current epoch millis and returns when it wants to run next, or a negative value to wait for
+ * {@link #wake()}. Wake-ups that arrive while one is pending are coalesced.
+ */
+final class FrameTicker implements AutoCloseable {
+
+    private static final long RETRY_MILLIS = 1000L;
+
+    private final LongUnaryOperator task;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+    /** Only touched on the ticker thread. */
+    private ScheduledFuture<?> next;
+
+    FrameTicker(String name, LongUnaryOperator task, Logger logger) {
+        this.task = task;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Runs the task as soon as possible, replacing its scheduled run. */
+    void wake() {
+        if (wakePending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::run);
+            } catch (RuntimeException ignored) {
+                // Closed.
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void run() {
+        wakePending.set(false);
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        long now = System.currentTimeMillis();
+        long at;
+        try {
+            at = task.applyAsLong(now);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Scheduled task failed; retrying in " + RETRY_MILLIS + " ms.", e);
+            at = now + RETRY_MILLIS;
+        }
+        if (at >= 0 && !executor.isShutdown()) {
+            next = executor.schedule(this::run, Math.max(0L, at - now), TimeUnit.MILLISECONDS);
+        }
+    }
+}
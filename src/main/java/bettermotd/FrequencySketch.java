@@ -0,0 +1,115 @@
+package bettermotd;
+
+import java.util.Arrays;
+
+/**
+ * TinyLFU popularity estimate for sticky admission: a doorkeeper bloom filter in front of a count-min sketch with
+ * 4-bit counters. A key's first sighting only sets doorkeeper bits, so one-shot keys never reach the counters. After
+ * {@code 10 * expectedEntries} recorded accesses all counters are halved and the doorkeeper is cleared, so old
+ * popularity fades; the doorkeeper is also cleared early once it has absorbed more first sightings than it can hold
+ * at a low false-positive rate, which is what a scan looks like.
+ *
+ * <p>Not thread-safe; each {@link StickyTable} segment guards its own sketch.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final int MAX_COUNT = 15;
+    private static final int DEPTH = 4;
+
+    private final long[] counters;
+    private final long[] doorkeeper;
+    private final int sampleSize;
+    private final int doorkeeperCapacity;
+    private int additions;
+    private int doorkeeperAdditions;
+
+    FrequencySketch(int expectedEntries) {
+        int entries = Math.max(16, expectedEntries);
+        // One long (sixteen counters) per expected entry.
+        int counterLongs = Integer.highestOneBit(entries - 1) << 1;
+        this.counters = new long[counterLongs];
+        this.doorkeeper = new long[counterLongs];
+        // Eight bits per key keeps the false-positive rate of two probes around 5%.
+        this.doorkeeperCapacity = doorkeeper.length * Long.SIZE / 8;
+        this.sampleSize = entries * 10;
+    }
+
+    /**
+     * Records an access to the key with hash {@code hash}. Returns false on the key's first sighting since the last
+     * reset, true once it has been seen before.
+     */
+    boolean increment(long hash) {
+        // Re-mixed so the sketch does not share bits with the segment and slot index of the table.
+        long key = SplitMix.mix64(hash);
+        if (!doorkeeperAdd(key)) {
+            if (++doorkeeperAdditions >= doorkeeperCapacity) {
+                clearDoorkeeper();
+            }
+            countAddition();
+            return false;
+        }
+        long spread = SplitMix.mix64(key);
+        for (int i = 0; i < DEPTH; i++) {
+            int index = counterIndex(key, i);
+            int shift = counterShift(spread, i);
+            if (((counters[index] >>> shift) & MAX_COUNT) < MAX_COUNT) {
+                counters[index] += 1L << shift;
+            }
+        }
+        countAddition();
+        return true;
+    }
+
+    /** Estimated recent accesses: the sketch count, plus one while the doorkeeper remembers the key. */
+    int frequency(long hash) {
+        long key = SplitMix.mix64(hash);
+        long spread = SplitMix.mix64(key);
+        int min = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, (int) ((counters[counterIndex(key, i)] >>> counterShift(spread, i)) & MAX_COUNT));
+        }
+        return doorkeeperContains(key) ? min + 1 : min;
+    }
+
+    private int counterIndex(long key, int row) {
+        return (int) (key >>> (row * 16)) & (counters.length - 1);
+    }
+
+    private static int counterShift(long spread, int row) {
+        return (int) ((spread >>> (row * 4)) & 15) << 2;
+    }
+
+    private boolean doorkeeperAdd(long key) {
+        boolean present = doorkeeperContains(key);
+        int bits = doorkeeper.length * Long.SIZE - 1;
+        int first = (int) key & bits;
+        int second = (int) (key >>> 32) & bits;
+        doorkeeper[first >>> 6] |= 1L << first;
+        doorkeeper[second >>> 6] |= 1L << second;
+        return present;
+    }
+
+    private boolean doorkeeperContains(long key) {
+        int bits = doorkeeper.length * Long.SIZE - 1;
+        int first = (int) key & bits;
+        int second = (int) (key >>> 32) & bits;
+        return (doorkeeper[first >>> 6] & (1L << first)) != 0 && (doorkeeper[second >>> 6] & (1L << second)) != 0;
+    }
+
+    private void countAddition() {
+        if (++additions < sampleSize) {
+            return;
+        }
+        additions = 0;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (counters[i] >>> 1) & RESET_MASK;
+        }
+        clearDoorkeeper();
+    }
+
+    private void clearDoorkeeper() {
+        Arrays.fill(doorkeeper, 0L);
+        doorkeeperAdditions = 0;
+    }
+}
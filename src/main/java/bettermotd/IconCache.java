@@ -1,57 +1,173 @@
 package bettermotd;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import org.bukkit.Bukkit;
 import org.bukkit.Server;
-import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.util.CachedServerIcon;
 
 public final class IconCache {
 
     private static final String DEFAULT_ICON_RESOURCE = "icons/default.png";
-    private static final String DEFAULT_ICON_TARGET = "icons/default.png";
+    static final String DEFAULT_ICON_TARGET = "icons/default.png";
+    private static final String ICONS_DIR = "icons";
 
-    private final JavaPlugin plugin;
-    private final Map<String, CachedServerIcon> cache = new ConcurrentHashMap<>();
+    private final Plugin plugin;
 
     private File iconsDir;
-    private volatile CachedServerIcon defaultIcon;
 
-    public IconCache(JavaPlugin plugin) {
+    public IconCache(Plugin plugin) {
         this.plugin = plugin;
     }
 
-    public void reload(Collection<String> iconPaths) {
-        cache.clear();
+    /** The directory icon file names in {@link #redecode} are relative to. */
+    public Path directory() {
+        return new File(plugin.getDataFolder(), ICONS_DIR).toPath();
+    }
 
+    /**
+     * Loads the default icon and {@code iconPaths} into a new, immutable set. Files are read and hashed as one task
+     * each on {@code executor}, then every distinct file is decoded once, into one icon per frame for animated GIFs:
+     * paths with identical contents share one icon, and contents already in {@code previous} keep their icon without
+     * being decoded again. Earlier sets are left untouched.
+     */
+    public CompletableFuture<Icons> loadAsync(Collection<String> iconPaths, Icons previous, Executor executor) {
         ensureIconsDirectory();
         ensureDefaultIconExists();
-        defaultIcon = loadIcon(DEFAULT_ICON_TARGET);
         warnIfIconsEmpty();
-        preload(iconPaths);
-    }
 
-    public void clear() {
-        cache.clear();
+        Set<String> paths = new LinkedHashSet<>();
+        paths.add(DEFAULT_ICON_TARGET);
+        if (iconPaths != null) {
+            for (String path : iconPaths) {
+                String normalized = normalizeIconPath(path);
+                if (normalized != null) {
+                    paths.add(normalized);
+                }
+            }
+        }
+        List<String> keys = new ArrayList<>(paths);
+        List<CompletableFuture<IconFile>> reads = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            reads.add(CompletableFuture.supplyAsync(() -> readIcon(key), executor));
+        }
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0]))
+                .thenCompose(ignored -> {
+                    Map<String, List<CachedServerIcon>> known = previous.byHash();
+                    Map<String, IconFile> files = new LinkedHashMap<>();
+                    Map<String, CompletableFuture<List<CachedServerIcon>>> byHash = new HashMap<>();
+                    int decoding = 0;
+                    for (int i = 0; i < keys.size(); i++) {
+                        IconFile file = reads.get(i).join();
+                        if (file == null) {
+                            continue;
+                        }
+                        files.put(keys.get(i), file);
+                        if (byHash.containsKey(file.hash())) {
+                            continue;
+                        }
+                        List<CachedServerIcon> kept = known.get(file.hash());
+                        if (kept != null) {
+                            byHash.put(file.hash(), CompletableFuture.completedFuture(kept));
+                        } else {
+                            byHash.put(file.hash(), CompletableFuture.supplyAsync(() -> decodeIcon(file), executor));
+                            decoding++;
+                        }
+                    }
+                    int decoded = decoding;
+                    return CompletableFuture.allOf(byHash.values().toArray(new CompletableFuture<?>[0]))
+                            .thenApply(done -> {
+                                Map<String, Entry> icons = new HashMap<>();
+                                files.forEach((path, file) -> {
+                                    List<CachedServerIcon> frames =
+                                            byHash.get(file.hash()).join();
+                                    if (frames != null) {
+                                        icons.put(path, new Entry(file.hash(), frames));
+                                    }
+                                });
+                                if (files.size() > byHash.size() || decoded < byHash.size()) {
+                                    plugin.getLogger()
+                                            .info("Icons: " + files.size() + " files, " + byHash.size()
+                                                    + " distinct images, " + decoded + " decoded.");
+                                }
+                                return Icons.of(icons);
+                            });
+                });
     }
 
-    public CachedServerIcon pickIcon(Preset preset) {
-        String path = (preset != null) ? preset.icon() : null;
-
-        if (path == null || path.isBlank()) {
-            path = DEFAULT_ICON_TARGET;
+    /**
+     * Reads again the named files of the icons directory that {@code current} holds, including the default icon,
+     * and returns the ones whose contents changed by path. Files that fail to decode are left out, so their previous
+     * icon stays in use.
+     */
+    public Map<String, Entry> redecode(Icons current, Collection<String> fileNames) {
+        Map<String, List<CachedServerIcon>> known = current.byHash();
+        Map<String, Entry> decoded = new HashMap<>();
+        for (String name : fileNames) {
+            String path = ICONS_DIR + "/" + name;
+            Entry old = current.byPath().get(path);
+            if (old == null && !DEFAULT_ICON_TARGET.equals(path)) {
+                continue;
+            }
+            IconFile file = readIcon(path);
+            if (file == null || (old != null && old.hash().equals(file.hash()))) {
+                continue;
+            }
+            List<CachedServerIcon> frames = known.get(file.hash());
+            if (frames == null) {
+                frames = decodeIcon(file);
+            }
+            if (frames != null) {
+                known.put(file.hash(), frames);
+                decoded.put(path, new Entry(file.hash(), frames));
+            }
         }
+        return decoded;
+    }
 
-        CachedServerIcon icon = cache.get(path);
-        if (icon != null) {
-            return icon;
+    /**
+     * Loads the files of {@code iconPaths} that {@code current} does not hold yet and returns them by path, reusing
+     * icons of identical contents. Runs on the calling thread; files that fail to load are left out.
+     */
+    public Map<String, Entry> loadMissing(Icons current, Collection<String> iconPaths) {
+        Map<String, List<CachedServerIcon>> known = current.byHash();
+        Map<String, Entry> loaded = new HashMap<>();
+        for (String raw : iconPaths) {
+            String path = normalizeIconPath(raw);
+            if (path == null || current.byPath().containsKey(path) || loaded.containsKey(path)) {
+                continue;
+            }
+            IconFile file = readIcon(path);
+            if (file == null) {
+                continue;
+            }
+            List<CachedServerIcon> frames = known.get(file.hash());
+            if (frames == null) {
+                frames = decodeIcon(file);
+            }
+            if (frames != null) {
+                known.put(file.hash(), frames);
+                loaded.put(path, new Entry(file.hash(), frames));
+            }
         }
-        return defaultIcon;
+        return loaded;
     }
 
     public static String normalizeIconPath(String relPath) {
@@ -59,9 +175,7 @@ public final class IconCache {
             return null;
         }
         String normalized = relPath;
-        if (!normalized.contains("/")
-                && !normalized.contains("\\")
-                && normalized.toLowerCase().endsWith(".png")) {
+        if (!normalized.contains("/") && !normalized.contains("\\") && isIconFile(normalized)) {
             normalized = "icons/" + normalized;
         }
         return normalized.replace("\\", "/");
@@ -73,20 +187,8 @@ public final class IconCache {
      * =========================
      */
 
-    private void preload(Collection<String> iconPaths) {
-        if (iconPaths == null || iconPaths.isEmpty()) {
-            return;
-        }
-        for (String path : iconPaths) {
-            if (path == null || path.isBlank()) {
-                continue;
-            }
-            loadIcon(path);
-        }
-    }
-
     private void ensureIconsDirectory() {
-        this.iconsDir = new File(plugin.getDataFolder(), "icons");
+        this.iconsDir = new File(plugin.getDataFolder(), ICONS_DIR);
 
         if (!iconsDir.exists()) {
             if (iconsDir.mkdirs()) {
@@ -122,7 +224,7 @@ public final class IconCache {
             return;
         }
 
-        File[] pngs = iconsDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".png"));
+        File[] pngs = iconsDir.listFiles((dir, name) -> isIconFile(name));
         if (pngs == null || pngs.length == 0) {
             plugin.getLogger()
                     .warning("Icons directory is empty. Server list icon will not be shown. "
@@ -152,26 +254,139 @@ public final class IconCache {
         }
     }
 
-    private CachedServerIcon loadIcon(String relPath) {
-        String normalized = normalizeIconPath(relPath);
-        if (normalized == null) {
+    /** {@code normalized} is a path from {@link #normalizeIconPath(String)}; null when it cannot be read. */
+    private IconFile readIcon(String normalized) {
+        try {
+            File file = new File(plugin.getDataFolder(), normalized);
+            if (!file.exists()) {
+                plugin.getLogger().warning("Icon not found: " + file.getPath());
+                return null;
+            }
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            return new IconFile(normalized, bytes, IconImages.hash(bytes));
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to read icon '" + normalized + "': " + e.getMessage());
             return null;
         }
+    }
 
-        return cache.computeIfAbsent(normalized, key -> {
-            try {
-                File file = new File(plugin.getDataFolder(), key);
-                if (!file.exists()) {
-                    plugin.getLogger().warning("Icon not found: " + file.getPath());
-                    return null;
+    /** PNG or GIF, by file name. */
+    static boolean isIconFile(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".png") || lower.endsWith(".gif");
+    }
+
+    /**
+     * Validates the image, scales its frames to 64x64 when needed and hands them to the server; null when it is not
+     * usable.
+     */
+    private List<CachedServerIcon> decodeIcon(IconFile file) {
+        try {
+            List<BufferedImage> images = IconImages.decodeFrames(file.bytes());
+            BufferedImage first = images.get(0);
+            if (first.getWidth() != IconImages.SIZE || first.getHeight() != IconImages.SIZE) {
+                plugin.getLogger()
+                        .info("Resized icon '" + file.path() + "' from " + first.getWidth() + "x" + first.getHeight()
+                                + " to " + IconImages.SIZE + "x" + IconImages.SIZE + ".");
+            }
+            Server server = Bukkit.getServer();
+            List<CachedServerIcon> frames = new ArrayList<>(images.size());
+            for (BufferedImage image : images) {
+                frames.add(server.loadServerIcon(IconImages.normalize(image)));
+            }
+            return List.copyOf(frames);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Invalid icon '" + file.path() + "': " + e.getMessage());
+            return null;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load icon '" + file.path() + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    private record IconFile(String path, byte[] bytes, String hash) {}
+
+    /**
+     * The icons of one file, one per frame (a single one for still images), and the SHA-256 of the file contents
+     * they were decoded from.
+     */
+    public record Entry(String hash, List<CachedServerIcon> frames) {
+        /** The decoded 64x64 ARGB pixels of every frame; what the server keeps is encoded and usually smaller. */
+        long estimatedBytes() {
+            return (long) frames.size() * IconImages.SIZE * IconImages.SIZE * 4;
+        }
+    }
+
+    /** Icons by normalized path; {@code defaultIcon} is null when no default icon could be loaded. */
+    public record Icons(Map<String, Entry> byPath, CachedServerIcon defaultIcon) {
+        static final Icons NONE = new Icons(Map.of(), null);
+
+        static Icons of(Map<String, Entry> byPath) {
+            Entry defaultEntry = byPath.get(DEFAULT_ICON_TARGET);
+            return new Icons(
+                    Map.copyOf(byPath),
+                    defaultEntry != null ? defaultEntry.frames().get(0) : null);
+        }
+
+        /** A copy with {@code replaced} icons swapped in. */
+        public Icons with(Map<String, Entry> replaced) {
+            Map<String, Entry> icons = new HashMap<>(byPath);
+            icons.putAll(replaced);
+            return of(icons);
+        }
+
+        /** A copy without the icons of {@code paths}; the default icon is kept. */
+        public Icons without(Collection<String> paths) {
+            Map<String, Entry> icons = new HashMap<>(byPath);
+            for (String path : paths) {
+                if (!DEFAULT_ICON_TARGET.equals(path)) {
+                    icons.remove(path);
                 }
+            }
+            return of(icons);
+        }
 
-                Server server = Bukkit.getServer();
-                return server.loadServerIcon(file);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load icon '" + normalized + "': " + e.getMessage());
-                return null;
+        /** A new, mutable map of the loaded icons by content hash. */
+        Map<String, List<CachedServerIcon>> byHash() {
+            Map<String, List<CachedServerIcon>> icons = new HashMap<>();
+            for (Entry entry : byPath.values()) {
+                icons.put(entry.hash(), entry.frames());
             }
-        });
+            return icons;
+        }
+
+        /**
+         * The icon frames of {@code preset}: the frames of every loaded {@code iconFrames} file in order, else the
+         * frames of its {@code icon}, else the default icon. Never empty; the single element is null when there is no
+         * default icon either.
+         */
+        public CachedServerIcon[] pick(Preset preset) {
+            if (preset != null
+                    && preset.iconFrames() != null
+                    && !preset.iconFrames().isEmpty()) {
+                List<CachedServerIcon> frames = new ArrayList<>();
+                for (String path : preset.iconFrames()) {
+                    Entry entry = byPath.get(path);
+                    if (entry != null) {
+                        frames.addAll(entry.frames());
+                    }
+                }
+                if (!frames.isEmpty()) {
+                    return frames.toArray(new CachedServerIcon[0]);
+                }
+            }
+
+            String path = (preset != null) ? preset.icon() : null;
+
+            if (path == null || path.isBlank()) {
+                path = DEFAULT_ICON_TARGET;
+            }
+
+            Entry entry = byPath.get(path);
+            if (entry != null) {
+                return entry.frames().toArray(new CachedServerIcon[0]);
+            }
+            return new CachedServerIcon[] {defaultIcon};
+        }
     }
 }
@@ -0,0 +1,193 @@
+package bettermotd;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import org.w3c.dom.Node;
+
+/**
+ * Turns icon files into images the server list accepts: decoded with ImageIO, checked, and scaled to 64x64 when they
+ * have another size. An animated GIF yields one image per frame. Files are identified by the SHA-256 of their bytes,
+ * so identical images can share one icon.
+ */
+final class IconImages {
+
+    static final int SIZE = 64;
+    /** Larger sources are rejected before their pixels are decoded. */
+    static final int MAX_SOURCE_SIZE = 2048;
+    /** Frames of one animated file; every frame becomes a server icon kept in memory. */
+    static final int MAX_FRAMES = 128;
+
+    private static final String GIF_STREAM_FORMAT = "javax_imageio_gif_stream_1.0";
+    private static final String GIF_IMAGE_FORMAT = "javax_imageio_gif_image_1.0";
+
+    private IconImages() {}
+
+    /** The hex SHA-256 of {@code bytes}. */
+    static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Decodes every frame in {@code bytes}: one for a still image, each frame composed onto the full canvas for an
+     * animated GIF. The message of the exception says why a file is not usable.
+     */
+    static List<BufferedImage> decodeFrames(byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            throw new IOException("file is empty");
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("not a readable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, false, false);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0) {
+                    throw new IOException("image has no pixels");
+                }
+                checkSize(width, height);
+                int count = reader.getNumImages(true);
+                if (count > MAX_FRAMES) {
+                    throw new IOException("image has " + count + " frames, more than " + MAX_FRAMES);
+                }
+                if (count <= 1 || !"gif".equalsIgnoreCase(reader.getFormatName())) {
+                    return List.of(reader.read(0));
+                }
+                return composeGifFrames(reader, count);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** {@code image} itself when it is already 64x64, otherwise a 64x64 ARGB copy scaled with bicubic filtering. */
+    static BufferedImage normalize(BufferedImage image) {
+        if (image.getWidth() == SIZE && image.getHeight() == SIZE) {
+            return image;
+        }
+        BufferedImage scaled = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, SIZE, SIZE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * GIF frames after the first only hold the pixels that changed, at an offset. Draws each onto a canvas of the
+     * logical screen size and applies its disposal method before the next one.
+     */
+    private static List<BufferedImage> composeGifFrames(ImageReader reader, int count) throws IOException {
+        int canvasWidth = reader.getWidth(0);
+        int canvasHeight = reader.getHeight(0);
+        Node screen = child(reader.getStreamMetadata(), GIF_STREAM_FORMAT, "LogicalScreenDescriptor");
+        if (screen != null) {
+            canvasWidth = Math.max(canvasWidth, intAttribute(screen, "logicalScreenWidth"));
+            canvasHeight = Math.max(canvasHeight, intAttribute(screen, "logicalScreenHeight"));
+        }
+        checkSize(canvasWidth, canvasHeight);
+
+        BufferedImage canvas = new BufferedImage(canvasWidth, canvasHeight, BufferedImage.TYPE_INT_ARGB);
+        List<BufferedImage> frames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BufferedImage frame = reader.read(i);
+            IIOMetadata metadata = reader.getImageMetadata(i);
+            Node descriptor = child(metadata, GIF_IMAGE_FORMAT, "ImageDescriptor");
+            Node control = child(metadata, GIF_IMAGE_FORMAT, "GraphicControlExtension");
+            int x = descriptor != null ? intAttribute(descriptor, "imageLeftPosition") : 0;
+            int y = descriptor != null ? intAttribute(descriptor, "imageTopPosition") : 0;
+            String disposal = control != null ? attribute(control, "disposalMethod") : "none";
+
+            BufferedImage before = "restoreToPrevious".equals(disposal) ? copy(canvas) : null;
+            Graphics2D graphics = canvas.createGraphics();
+            try {
+                graphics.drawImage(frame, x, y, null);
+            } finally {
+                graphics.dispose();
+            }
+            frames.add(copy(canvas));
+
+            if ("restoreToBackgroundColor".equals(disposal)) {
+                Graphics2D clear = canvas.createGraphics();
+                try {
+                    clear.setComposite(AlphaComposite.Clear);
+                    clear.fillRect(x, y, frame.getWidth(), frame.getHeight());
+                } finally {
+                    clear.dispose();
+                }
+            } else if (before != null) {
+                canvas = before;
+            }
+        }
+        return frames;
+    }
+
+    private static void checkSize(int width, int height) throws IOException {
+        if (width > MAX_SOURCE_SIZE || height > MAX_SOURCE_SIZE) {
+            throw new IOException(
+                    "image is " + width + "x" + height + ", larger than " + MAX_SOURCE_SIZE + "x" + MAX_SOURCE_SIZE);
+        }
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = copy.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return copy;
+    }
+
+    private static Node child(IIOMetadata metadata, String format, String name) {
+        if (metadata == null) {
+            return null;
+        }
+        for (Node node = metadata.getAsTree(format).getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static String attribute(Node node, String name) {
+        Node value = node.getAttributes().getNamedItem(name);
+        return value != null ? value.getNodeValue() : null;
+    }
+
+    private static int intAttribute(Node node, String name) {
+        String value = attribute(node, name);
+        try {
+            return value != null ? Integer.parseInt(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package bettermotd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recency order and size of the icon files kept by lazy icon loading, by normalized path. Files are touched when the
+ * profile using them becomes active, not per ping. Once the entry or byte limit is exceeded the least recently used
+ * files are evicted, except pinned ones (the active profile's and the default icon).
+ */
+final class IconLru {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Map<String, Long> bytesByPath = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long loads;
+    private long evictions;
+
+    /** {@code maxBytes <= 0} means no byte limit. */
+    IconLru(int maxEntries, long maxBytes) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(0L, maxBytes);
+    }
+
+    int maxEntries() {
+        return maxEntries;
+    }
+
+    long maxBytes() {
+        return maxBytes;
+    }
+
+    /** Forgets everything and tracks {@code entries} instead, as loaded by a reload. */
+    synchronized void reset(Map<String, IconCache.Entry> entries) {
+        bytesByPath.clear();
+        totalBytes = 0L;
+        for (Map.Entry<String, IconCache.Entry> entry : entries.entrySet()) {
+            long bytes = entry.getValue().estimatedBytes();
+            bytesByPath.put(entry.getKey(), bytes);
+            totalBytes += bytes;
+        }
+    }
+
+    /** Records files loaded on demand as the most recently used ones. */
+    synchronized void added(Map<String, IconCache.Entry> entries) {
+        for (Map.Entry<String, IconCache.Entry> entry : entries.entrySet()) {
+            long bytes = entry.getValue().estimatedBytes();
+            Long previous = bytesByPath.put(entry.getKey(), bytes);
+            totalBytes += bytes - (previous != null ? previous : 0L);
+            loads++;
+        }
+    }
+
+    /** Marks the tracked files among {@code paths} as the most recently used ones. */
+    synchronized void touch(Collection<String> paths) {
+        for (String path : paths) {
+            bytesByPath.get(path);
+        }
+    }
+
+    /** Removes least recently used, unpinned files until both limits hold; returns their paths. */
+    synchronized List<String> evict(Set<String> pinned) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = bytesByPath.entrySet().iterator();
+        while (overLimit() && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (pinned.contains(entry.getKey())) {
+                continue;
+            }
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            evictions++;
+        }
+        return evicted;
+    }
+
+    synchronized Stats stats() {
+        return new Stats(bytesByPath.size(), maxEntries, totalBytes, maxBytes, loads, evictions);
+    }
+
+    private boolean overLimit() {
+        return bytesByPath.size() > maxEntries || (maxBytes > 0L && totalBytes > maxBytes);
+    }
+
+    /** {@code maxBytes} is 0 without a byte limit; {@code loads} counts files loaded on demand. */
+    public record Stats(int size, int maxEntries, long bytes, long maxBytes, long loads, long evictions) {}
+}
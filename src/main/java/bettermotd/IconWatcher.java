@@ -0,0 +1,147 @@
+package bettermotd;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches a directory for created or modified PNG or GIF files on a daemon thread. Changes are collected until none
+ * arrived for the debounce delay and then reported together by file name, so an editor that writes a file in several
+ * steps causes one update.
+ */
+final class IconWatcher implements AutoCloseable {
+
+    private final Path directory;
+    private final long debounceMillis;
+    private final Consumer<Set<String>> onChange;
+    private final Logger logger;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private IconWatcher(
+            Path directory, long debounceMillis, Consumer<Set<String>> onChange, Logger logger, WatchService service) {
+        this.directory = directory;
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+        this.logger = logger;
+        this.watchService = service;
+        this.thread = new Thread(this::run, "BetterMOTD icon watcher");
+        thread.setDaemon(true);
+    }
+
+    /** Starts watching {@code directory}; {@code onChange} runs on the watcher thread. */
+    static IconWatcher start(Path directory, long debounceMillis, Consumer<Set<String>> onChange, Logger logger)
+            throws IOException {
+        WatchService service = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            service.close();
+            throw e;
+        }
+        IconWatcher watcher = new IconWatcher(directory, debounceMillis, onChange, logger, service);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    long debounceMillis() {
+        return debounceMillis;
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Failed to close icon watch service.", e);
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        Set<String> changed = new LinkedHashSet<>();
+        long quietAt = 0L;
+        try {
+            while (true) {
+                WatchKey key;
+                if (changed.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long waitNanos = quietAt - System.nanoTime();
+                    key = waitNanos > 0 ? watchService.poll(waitNanos, TimeUnit.NANOSECONDS) : null;
+                }
+                if (key != null) {
+                    if (collect(key, changed)) {
+                        quietAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                    }
+                    if (!key.reset()) {
+                        logger.warning("Icons directory is no longer watched: " + directory);
+                        return;
+                    }
+                } else if (!changed.isEmpty()) {
+                    report(changed);
+                    changed = new LinkedHashSet<>();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        }
+    }
+
+    /** Adds the icon files of {@code key}'s events to {@code changed}; returns whether any event was relevant. */
+    private boolean collect(WatchKey key, Set<String> changed) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were dropped: treat every icon as changed.
+                relevant |= addAll(changed);
+            } else if (event.context() instanceof Path name && isIcon(name)) {
+                changed.add(name.toString());
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+
+    private boolean addAll(Set<String> changed) {
+        boolean added = false;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (isIcon(file.getFileName())) {
+                    added |= changed.add(file.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to list icons directory: " + e.getMessage());
+        }
+        return added;
+    }
+
+    private void report(Set<String> changed) {
+        try {
+            onChange.accept(Set.copyOf(changed));
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Icon update failed.", e);
+        }
+    }
+
+    private static boolean isIcon(Path name) {
+        return IconCache.isIconFile(name.toString());
+    }
+}
@@ -1,118 +1,372 @@
 package bettermotd;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
-import java.time.Instant;
-import java.time.LocalTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.event.server.ServerListPingEvent;
-import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.CachedServerIcon;
 
 public final class MotdService {
 
-    private static final int STICKY_CLEANUP_BATCH = 200;
-    private static final int STICKY_EVICTION_BATCH = 200;
-    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
-    private static final ZoneId SYSTEM_ZONE = ZoneId.systemDefault();
-    private static final String[] SUPPORTED_PLACEHOLDERS =
-            new String[] {"%online%", "%max%", "%version%", "%preset%", "%profile%", "%motd_frame%", "%time%"};
+    private static final String STICKY_FILE = "sticky.bin";
 
-    private final JavaPlugin plugin;
+    private final Plugin plugin;
     private final ActiveProfileStore profileStore;
     private final IconCache iconCache;
     private final TextFormatService textFormatService;
     private final PaperPingAdapter paperAdapter;
     private final PlayerCountService playerCountService;
+    private final FrameTicker snapshotTicker;
+    private final FrameTicker placeholderTicker;
+    /** Runs reload stages; one virtual thread per task, since icon decoding blocks on file reads. */
+    private final ExecutorService reloadExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("BetterMOTD reload-", 0).factory());
 
-    private final Map<String, StickyProfileState> stickyStates = new ConcurrentHashMap<>();
-    private final Map<String, AtomicInteger> rotateCounters = new ConcurrentHashMap<>();
+    private final LongAdder snapshotHits = new LongAdder();
     private final Set<String> formatWarnings = ConcurrentHashMap.newKeySet();
-    private final Map<String, PresetCache> presetCache = new ConcurrentHashMap<>();
 
-    private volatile ConfigModel config = ConfigModel.empty();
-    private volatile String activeProfileId = "default";
-
-    public MotdService(JavaPlugin plugin, ActiveProfileStore profileStore) {
+    /** Everything a ping reads; replaced as a whole on reload and read once per ping. */
+    private volatile RuntimeSnapshot runtime;
+    /** Serializes replacing {@link #runtime} with a copy of itself. */
+    private final Object publishLock = new Object();
+
+    private volatile StickySweeper stickySweeper;
+    private volatile IconWatcher iconWatcher;
+    /** Recency of lazily loaded icons; null unless {@code icons.lazy} is on. Replaced under {@link #publishLock}. */
+    private volatile IconLru iconLru;
+
+    private volatile ResponseSnapshot responseSnapshot;
+    /**
+     * Whether a reload has succeeded. Until then the runtime is the bundled fallback, whose empty sticky tables must
+     * not replace {@link #STICKY_FILE}.
+     */
+    private volatile boolean configLoaded;
+    /** Online and max player counts of the last ping that missed the snapshot, packed; -1 before the first one. */
+    private volatile long observedCounts = -1L;
+    /** Snapshot hits when the ticker last refreshed; only touched on the ticker thread. */
+    private long hitsAtLastRefresh;
+    /** The running or last reload; guarded by {@code this}. */
+    private CompletableFuture<ReloadResult> pendingReload;
+
+    public MotdService(Plugin plugin, ActiveProfileStore profileStore) {
         this.plugin = plugin;
         this.profileStore = profileStore;
         this.iconCache = new IconCache(plugin);
         this.textFormatService = new TextFormatService();
         this.paperAdapter = new PaperPingAdapter(plugin.getLogger());
         this.playerCountService = new PlayerCountService(plugin.getLogger());
+        this.snapshotTicker =
+                new FrameTicker("BetterMOTD response snapshots", this::refreshResponseSnapshot, plugin.getLogger());
+        this.placeholderTicker = new FrameTicker(
+                "BetterMOTD placeholders", now -> runtime.placeholders().refresh(now), plugin.getLogger());
+        LoadedConfig initial = new LoadedConfig(
+                new ConfigModel.LoadResult(ConfigModel.empty(), 0, false, Map.of(), Set.of(), true),
+                null,
+                PlaceholderRegistry.builder().build(0L));
+        this.runtime = assemble(
+                initial,
+                IconCache.Icons.NONE,
+                compileFramesAsync(initial, null, Runnable::run).join(),
+                null);
     }
 
+    /** {@link #reloadAsync()}, waiting for it to finish. */
     public ReloadResult reload() {
+        return reloadAsync().join();
+    }
+
+    /**
+     * Re-reads config.yml and compiles a new runtime snapshot off the calling thread: the config is parsed first,
+     * then icons are decoded and frames compiled in parallel, and the result is swapped in. If any stage fails the
+     * previous snapshot stays live. A reload requested while one is running joins it.
+     */
+    public synchronized CompletableFuture<ReloadResult> reloadAsync() {
+        CompletableFuture<ReloadResult> running = pendingReload;
+        if (running == null || running.isDone()) {
+            running = startReload();
+            pendingReload = running;
+        }
+        return running;
+    }
+
+    private CompletableFuture<ReloadResult> startReload() {
+        long startedAt = System.nanoTime();
+        AtomicLongArray stageNanos = new AtomicLongArray(ReloadStage.values().length);
+        for (int i = 0; i < stageNanos.length(); i++) {
+            stageNanos.set(i, -1L);
+        }
+        CompletableFuture<LoadedConfig> loaded = timed(
+                stageNanos, ReloadStage.CONFIG, () -> CompletableFuture.supplyAsync(this::loadConfig, reloadExecutor));
+        CompletableFuture<IconCache.Icons> icons = loaded.thenCompose(config -> timed(
+                stageNanos,
+                ReloadStage.ICONS,
+                () -> iconCache.loadAsync(collectIconPaths(config), runtime.icons(), reloadExecutor)));
+        CompletableFuture<Map<String, List<PresetCache>>> frames = loaded.thenCompose(config ->
+                timed(stageNanos, ReloadStage.FRAMES, () -> compileFramesAsync(config, runtime, reloadExecutor)));
+        return CompletableFuture.allOf(icons, frames)
+                .thenApply(ignored -> {
+                    long swapStart = System.nanoTime();
+                    int warnings = swap(loaded.join(), icons.join(), frames.join());
+                    stageNanos.set(ReloadStage.SWAP.ordinal(), System.nanoTime() - swapStart);
+                    return warnings;
+                })
+                .handle((warnings, error) -> {
+                    Map<ReloadStage, Long> stages = new EnumMap<>(ReloadStage.class);
+                    for (ReloadStage stage : ReloadStage.values()) {
+                        long nanos = stageNanos.get(stage.ordinal());
+                        if (nanos >= 0) {
+                            stages.put(stage, nanos);
+                        }
+                    }
+                    long totalNanos = System.nanoTime() - startedAt;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        logException(Level.SEVERE, "Failed to reload BetterMOTD; keeping the previous config.", cause);
+                        return new ReloadResult(false, 1, stages, totalNanos);
+                    }
+                    return new ReloadResult(true, warnings, stages, totalNanos);
+                });
+    }
+
+    private static <T> CompletableFuture<T> timed(
+            AtomicLongArray stageNanos, ReloadStage stage, Supplier<CompletableFuture<T>> work) {
+        long start = System.nanoTime();
+        return work.get().whenComplete((value, error) -> stageNanos.set(stage.ordinal(), System.nanoTime() - start));
+    }
+
+    private LoadedConfig loadConfig() {
+        ConfigModel.LoadResult result = ConfigModel.load(readConfigFile(), plugin.getDataFolder(), plugin.getLogger());
+        if (result.noProfilesDefined()) {
+            throw new IllegalStateException("config.yml defines no profiles");
+        }
+        ConfigModel config = result.config();
+        String desiredActive = profileStore.load(config.activeProfile(), plugin.getLogger());
+        formatWarnings.clear();
+        PlaceholderRegistry placeholders = PlaceholderRegistry.defaults(
+                Bukkit.getMinecraftVersion(),
+                ManagementFactory.getRuntimeMXBean().getStartTime(),
+                System.currentTimeMillis());
+        return new LoadedConfig(result, resolveActiveProfile(desiredActive, config), placeholders);
+    }
+
+    /**
+     * Parses config.yml without the bundled defaults behind it. Bukkit's {@code reloadConfig} logs a YAML error and
+     * carries on with the bundled config, which would replace the live MOTD; here the error fails the reload instead.
+     */
+    private YamlConfiguration readConfigFile() {
+        File file = new File(plugin.getDataFolder(), "config.yml");
+        YamlConfiguration yaml = new YamlConfiguration();
         try {
-            ConfigModel.LoadResult result =
-                    ConfigModel.load(plugin.getConfig(), plugin.getDataFolder(), plugin.getLogger());
-            this.config = result.config();
-            String desiredActive = profileStore.load(config.activeProfile(), plugin.getLogger());
-            this.activeProfileId = resolveActiveProfile(desiredActive, config);
-
-            iconCache.reload(collectIconPaths(config));
-            formatWarnings.clear();
-            rebuildPresetCache();
-            stickyStates.clear();
-            rotateCounters.clear();
-
-            logSummary(result);
-            if (config.debugSelfTest()) {
-                runFormatSelfTest();
-            }
-            return new ReloadResult(true, result.warnings());
-        } catch (Exception e) {
-            logException(Level.SEVERE, "Failed to reload BetterMOTD.", e);
-            return new ReloadResult(false, 1);
+            yaml.load(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + file + ": " + e.getMessage(), e);
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalStateException("config.yml is not valid YAML: " + e.getMessage(), e);
         }
+        return yaml;
+    }
+
+    /** Publishes the compiled reload; returns its warning count. */
+    private int swap(LoadedConfig loaded, IconCache.Icons icons, Map<String, List<PresetCache>> frames) {
+        ConfigModel config = loaded.config();
+        RuntimeSnapshot previous;
+        RuntimeSnapshot next;
+        // Pings see either the old snapshot or the new one, never a mix.
+        synchronized (publishLock) {
+            previous = runtime;
+            next = assemble(loaded, icons, frames, previous);
+            runtime = next;
+            resetIconLru(config.icons(), icons);
+        }
+        responseSnapshot = null;
+        placeholderTicker.wake();
+        configLoaded = true;
+        restartStickySweeper(config.performance().stickySweepIntervalMillis());
+        restartIconWatcher(config.icons());
+        snapshotTicker.wake();
+
+        logSummary(loaded.result(), next);
+        logReuse(previous, next);
+        if (config.debugSelfTest()) {
+            runFormatSelfTest();
+        }
+        return loaded.result().warnings();
     }
 
     public void shutdown() {
-        stickyStates.clear();
-        iconCache.clear();
+        reloadExecutor.shutdownNow();
+        snapshotTicker.close();
+        placeholderTicker.close();
+        responseSnapshot = null;
+        StickySweeper sweeper = stickySweeper;
+        if (sweeper != null) {
+            sweeper.close();
+            stickySweeper = null;
+        }
+        IconWatcher watcher = iconWatcher;
+        if (watcher != null) {
+            watcher.close();
+            iconWatcher = null;
+        }
+        RuntimeSnapshot rt = runtime;
+        if (!configLoaded) {
+            plugin.getLogger().info("No config was loaded; leaving " + STICKY_FILE + " as it is.");
+        } else if (rt.config().performance().persistSticky()) {
+            saveStickyState(rt);
+        }
+        rt.stickyTables().clear();
+    }
+
+    /**
+     * Restores the sticky entries saved by the last {@link #shutdown()}. Entries of profiles or presets that no longer
+     * exist, and entries past their profile's TTL, are skipped. Meant to run once after the first reload, before pings
+     * are handled; does nothing if that reload failed.
+     */
+    public void restoreStickyState() {
+        RuntimeSnapshot rt = runtime;
+        Path file = stickyFile();
+        if (!configLoaded || !rt.config().performance().persistSticky() || !Files.isRegularFile(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<StickySnapshotFile.Section> sections;
+        try {
+            sections = StickySnapshotFile.read(file);
+        } catch (IOException e) {
+            plugin.getLogger()
+                    .warning("Failed to read " + STICKY_FILE + "; starting without sticky entries: " + e.getMessage());
+            return;
+        }
+        long nowSeconds = System.currentTimeMillis() / 1000L;
+        int restored = 0;
+        int skipped = 0;
+        for (StickySnapshotFile.Section section : sections) {
+            CompiledProfile compiled = rt.profiles().get(section.profileId());
+            if (compiled == null) {
+                skipped += section.size();
+                continue;
+            }
+            Profile profile = compiled.profile();
+            long ttlSeconds = Math.max(1, profile.stickyTtlSeconds());
+            int[] stickyIds = compiled.stickyIdsOf(section.presetIds());
+            StickyTable table = rt.stickyTable(profile);
+            for (int i = 0; i < section.size(); i++) {
+                int preset = section.preset(i);
+                int stickyId = preset >= 0 && preset < stickyIds.length ? stickyIds[preset] : -1;
+                long createdAt = section.createdAtSeconds(i);
+                if (stickyId >= 0
+                        && nowSeconds - createdAt <= ttlSeconds
+                        && table.restore(section.hi(i), section.lo(i), stickyId, createdAt, section.frameSeed(i))) {
+                    restored++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        plugin.getLogger()
+                .info("Restored " + restored + " sticky entries (" + skipped + " expired or stale)"
+                        + String.format(Locale.ROOT, " in %.1f ms.", (System.nanoTime() - start) / 1_000_000.0));
+    }
+
+    /** Writes the live sticky entries of every profile to {@link #STICKY_FILE}, oldest first. */
+    private void saveStickyState(RuntimeSnapshot rt) {
+        long nowSeconds = System.currentTimeMillis() / 1000L;
+        List<StickySnapshotFile.Section> sections = new ArrayList<>();
+        int saved = 0;
+        for (Map.Entry<String, StickyTable> entry : rt.stickyTables().entrySet()) {
+            CompiledProfile compiled = rt.profiles().get(entry.getKey());
+            if (compiled == null) {
+                continue;
+            }
+            StickyTable table = entry.getValue();
+            long ttlSeconds = table.ttlSeconds();
+            StickySnapshotFile.Section section =
+                    new StickySnapshotFile.Section(entry.getKey(), compiled.presetIdsBySticky(), table.size());
+            table.forEach((hi, lo, stickyId, createdAt, frameSeed) -> {
+                if (nowSeconds - createdAt <= ttlSeconds) {
+                    section.add(hi, lo, stickyId, createdAt, frameSeed);
+                }
+            });
+            section.sortByCreation();
+            sections.add(section);
+            saved += section.size();
+        }
+        try {
+            StickySnapshotFile.write(stickyFile(), sections);
+            plugin.getLogger().info("Saved " + saved + " sticky entries to " + STICKY_FILE + ".");
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write " + STICKY_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private Path stickyFile() {
+        return plugin.getDataFolder().toPath().resolve(STICKY_FILE);
     }
 
     public boolean setActiveProfile(String profileId) {
         if (profileId == null || profileId.isBlank()) {
             return false;
         }
-        if (!config.profiles().containsKey(profileId)) {
-            return false;
+        synchronized (publishLock) {
+            RuntimeSnapshot rt = runtime;
+            CompiledProfile profile = rt.profiles().get(profileId);
+            if (profile == null) {
+                return false;
+            }
+            runtime = rt.withActive(profile);
         }
-        activeProfileId = profileId;
+        loadActiveIconsAsync();
+        snapshotTicker.wake();
         profileStore.save(profileId, plugin.getLogger());
         return true;
     }
 
     public String getActiveProfileId() {
-        return activeProfileId;
+        return runtime.active().profile().id();
     }
 
     public Set<String> getProfileIds() {
-        return config.profiles().keySet();
+        return runtime.profiles().keySet();
     }
 
     public List<String> getPresetIds(String profileId) {
-        Profile profile = resolveProfile(profileId);
-        if (profile == null || profile.presets() == null) {
-            return Collections.emptyList();
-        }
         List<String> ids = new ArrayList<>();
-        for (Preset preset : profile.presets()) {
+        for (Preset preset : runtime.resolve(profileId).presets()) {
             ids.add(preset.id());
         }
         return ids;
@@ -122,15 +376,34 @@ public final class MotdService {
         if (event == null) {
             return;
         }
+        RuntimeSnapshot rt = runtime;
         try {
             long now = System.currentTimeMillis();
-            RequestContext ctx = new RequestContext(asIp(event.getAddress()), now);
-            Profile profile = resolveProfile(activeProfileId);
-            applySelection(event, ctx, profile);
+            RequestContext ctx = RequestContext.of(event.getAddress(), now);
+            CompiledProfile profile = rt.active();
+            PingTimings timings = rt.config().performance().pingTimings() ? profile.timings() : null;
+            long start = timings != null ? System.nanoTime() : 0L;
+            PingEvent trace = PingEvent.enabled() ? new PingEvent() : null;
+            if (trace != null) {
+                trace.begin();
+            }
+            PingRateLimiter limiter = rt.rateLimiter();
+            if (limiter != null && ctx.hasIp() && !limiter.tryAcquire(ctx.ipHi(), ctx.ipLo(), now)) {
+                applyThrottled(rt, event, ctx, profile, timings, trace);
+            } else {
+                applySelection(rt, event, ctx, profile, timings, trace);
+            }
+            if (timings != null) {
+                timings.record(PingTimings.Stage.TOTAL, System.nanoTime() - start);
+            }
+            if (trace != null) {
+                trace.commit();
+            }
         } catch (Exception e) {
             logException(
                     Level.WARNING,
-                    "BetterMOTD ping handling failed (profile=" + activeProfileId + ", ip=" + ctxString(event) + ").",
+                    "BetterMOTD ping handling failed (profile="
+                            + rt.active().profile().id() + ", ip=" + ctxString(event) + ").",
                     e);
         }
     }
@@ -141,37 +414,44 @@ public final class MotdService {
         }
         String id = idOrPreset.trim();
         long now = System.currentTimeMillis();
-        RequestContext ctx = new RequestContext(asIp(address), now);
+        RequestContext ctx = RequestContext.of(address, now);
+        RuntimeSnapshot rt = runtime;
 
-        Profile profile = config.profiles().get(id);
+        CompiledProfile compiled = rt.profiles().get(id);
         boolean fromProfile = true;
         SelectionResult selection;
         String reason;
 
-        if (profile != null) {
-            selection = selectPreset(profile, ctx, false);
+        if (compiled != null) {
+            selection = selectPreset(rt, compiled, ctx, false);
             reason = selection.reason();
         } else {
-            profile = resolveProfile(activeProfileId);
-            Preset preset = findPreset(profile, id);
-            if (preset == null) {
+            compiled = rt.active();
+            int index = findPreset(compiled, id);
+            if (index < 0) {
                 return null;
             }
-            selection = new SelectionResult(preset, null, "manual preset selection");
+            Preset preset = compiled.presets().get(index);
+            selection = new SelectionResult(index, preset, StickyTable.MISSING, "manual preset selection");
             reason = "manual preset selection";
             fromProfile = false;
         }
+        Profile profile = compiled.profile();
 
         PlayerCountService.PlayerCountResult counts = playerCountService.compute(
-                profile, ctx.ip(), Bukkit.getOnlinePlayers().size(), Bukkit.getMaxPlayers(), now);
-        MotdRenderResult render = renderMotd(profile, selection, counts, ctx);
+                profile, ctx.hasIp(), ctx.ipHash(), Bukkit.getOnlinePlayers().size(), Bukkit.getMaxPlayers(), now);
+        MotdRenderResult render = renderMotd(rt, compiled, selection, counts, ctx);
         String motdRaw = render.raw();
-        TextFormatService.ParseResult parsed = render.parsed();
+        TextFormatService.ParseResult parsed = render.rendered().parsed();
         warnIfFallback(profile, selection.preset(), parsed);
         List<String> lines = splitMotd(motdRaw);
-        List<String> legacyLines = splitMotd(textFormatService.serializeToLegacy(parsed.component()));
+        List<String> legacyLines = splitMotd(render.rendered().legacy(textFormatService));
         String icon = selection.preset().icon();
         String resolvedIcon = icon == null || icon.isBlank() ? "(none)" : icon;
+        int iconFrames = compiled.icons()[selection.presetIndex()].length;
+        if (iconFrames > 1) {
+            resolvedIcon += " (" + iconFrames + " frames)";
+        }
 
         return new PreviewResult(
                 profile.id(),
@@ -180,7 +460,7 @@ public final class MotdService {
                 reason,
                 lines,
                 legacyLines,
-                config.colorFormat(),
+                rt.config().colorFormat(),
                 parsed.usedFormat(),
                 resolvedIcon,
                 counts);
@@ -192,321 +472,393 @@ public final class MotdService {
         event.setMotd(motd);
     }
 
-    private void applySelection(ServerListPingEvent event, RequestContext ctx, Profile profile) {
-        SelectionResult selection = selectPreset(profile, ctx, true);
+    /** {@code timings} is null while ping timings are disabled, {@code trace} while no recording wants ping events. */
+    private void applySelection(
+            RuntimeSnapshot rt,
+            ServerListPingEvent event,
+            RequestContext ctx,
+            CompiledProfile compiled,
+            PingTimings timings,
+            PingEvent trace) {
+        Profile profile = compiled.profile();
+        long mark = timings != null ? System.nanoTime() : 0L;
+        if (compiled.clientIndependent()) {
+            int online = event.getNumPlayers();
+            int max = event.getMaxPlayers();
+            ResponseSnapshot snapshot = responseSnapshot;
+            String[] periodic = rt.placeholders().periodicSnapshot();
+            if (snapshot != null && snapshot.covers(compiled, ctx.nowMs(), online, max, periodic)) {
+                int index = sharedPresetIndex(compiled);
+                snapshotHits.increment();
+                int iconFrame = iconFrameIndex(compiled, index, StickyTable.MISSING, ctx);
+                mark = lap(timings, PingTimings.Stage.SELECTION, mark);
+                describe(trace, compiled, index, snapshot.renders()[index].frameIndex(), true, 0L, false);
+                applyResponse(
+                        event,
+                        compiled,
+                        index,
+                        iconFrame,
+                        snapshot.playerCounts(),
+                        snapshot.renders()[index],
+                        timings,
+                        mark);
+                return;
+            }
+            // Missing or stale (new counts, or the ticker went idle): have it rendered for the next pings.
+            observedCounts = packCounts(online, max);
+            snapshotTicker.wake();
+        }
+        SelectionResult selection = selectPreset(rt, compiled, ctx, true);
+        int iconFrame = iconFrameIndex(compiled, selection.presetIndex(), selection.stickyEntry(), ctx);
+        mark = lap(timings, PingTimings.Stage.SELECTION, mark);
         PlayerCountService.PlayerCountResult counts = playerCountService.compute(
-                profile, ctx.ip(), event.getNumPlayers(), event.getMaxPlayers(), ctx.nowMs());
-        MotdRenderResult render = renderMotd(profile, selection, counts, ctx);
-        TextFormatService.ParseResult parsed = render.parsed();
-        warnIfFallback(profile, selection.preset(), parsed);
+                profile, ctx.hasIp(), ctx.ipHash(), event.getNumPlayers(), event.getMaxPlayers(), ctx.nowMs());
+        mark = lap(timings, PingTimings.Stage.PLAYER_COUNT, mark);
+        long renderStart = trace != null ? System.nanoTime() : 0L;
+        MotdRenderResult render = renderMotd(rt, compiled, selection, counts, ctx);
+        mark = lap(timings, PingTimings.Stage.RENDER, mark);
+        if (trace != null) {
+            long renderNanos = System.nanoTime() - renderStart;
+            int index = selection.presetIndex();
+            describe(trace, compiled, index, render.frameIndex(), render.cached(), renderNanos, false);
+        }
+        applyResponse(event, compiled, selection.presetIndex(), iconFrame, counts, render, timings, mark);
+    }
+
+    /**
+     * Over-budget pings get the first preset at its current frame on the global clock; no selection or sticky state is
+     * involved.
+     */
+    private void applyThrottled(
+            RuntimeSnapshot rt,
+            ServerListPingEvent event,
+            RequestContext ctx,
+            CompiledProfile compiled,
+            PingTimings timings,
+            PingEvent trace) {
+        long mark = timings != null ? System.nanoTime() : 0L;
+        PlayerCountService.PlayerCountResult counts = playerCountService.compute(
+                compiled.profile(), false, 0L, event.getNumPlayers(), event.getMaxPlayers(), ctx.nowMs());
+        mark = lap(timings, PingTimings.Stage.PLAYER_COUNT, mark);
+        SelectionResult selection =
+                new SelectionResult(0, compiled.presets().get(0), StickyTable.MISSING, "rate limited");
+        long renderStart = trace != null ? System.nanoTime() : 0L;
+        MotdRenderResult render = renderMotd(rt, compiled, selection, counts, ctx);
+        mark = lap(timings, PingTimings.Stage.RENDER, mark);
+        if (trace != null) {
+            describe(trace, compiled, 0, render.frameIndex(), render.cached(), System.nanoTime() - renderStart, true);
+        }
+        int iconFrame = iconFrameIndex(compiled, 0, StickyTable.MISSING, ctx);
+        applyResponse(event, compiled, 0, iconFrame, counts, render, timings, mark);
+    }
+
+    /** Fills in what {@code trace} reports about the ping's response; no-op without a recording. */
+    private static void describe(
+            PingEvent trace,
+            CompiledProfile compiled,
+            int presetIndex,
+            int frame,
+            boolean cacheHit,
+            long renderNanos,
+            boolean throttled) {
+        if (trace == null) {
+            return;
+        }
+        trace.profile = compiled.profile().id();
+        trace.preset = compiled.presets().get(presetIndex).id();
+        trace.selectionMode = compiled.profile().selectionMode().name();
+        trace.frame = frame;
+        trace.cacheHit = cacheHit;
+        trace.renderDuration = renderNanos;
+        trace.throttled = throttled;
+    }
+
+    /** Records the time since {@code since} for {@code stage} and returns the current time; no-op without timings. */
+    private static long lap(PingTimings timings, PingTimings.Stage stage, long since) {
+        if (timings == null) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        timings.record(stage, now - since);
+        return now;
+    }
+
+    private void applyResponse(
+            ServerListPingEvent event,
+            CompiledProfile compiled,
+            int presetIndex,
+            int iconFrame,
+            PlayerCountService.PlayerCountResult counts,
+            MotdRenderResult render,
+            PingTimings timings,
+            long mark) {
+        Profile profile = compiled.profile();
+        Preset preset = compiled.presets().get(presetIndex);
+        TextFormatService.ParseResult parsed = render.rendered().parsed();
+        warnIfFallback(profile, preset, parsed);
 
         boolean usedPaper = paperAdapter.applyMotd(event, parsed.component());
         if (!usedPaper) {
-            setLegacyMotd(event, textFormatService.serializeToLegacy(parsed.component()));
+            setLegacyMotd(event, render.rendered().legacy(textFormatService));
         }
 
         playerCountService.apply(event, counts, paperAdapter);
+        mark = lap(timings, PingTimings.Stage.APPLY, mark);
 
         try {
-            event.setServerIcon(iconCache.pickIcon(selection.preset()));
+            event.setServerIcon(compiled.icons()[presetIndex][iconFrame]);
         } catch (Exception e) {
             logException(
                     Level.WARNING,
-                    "Failed to set server icon for profile '" + profile.id() + "', preset '"
-                            + selection.preset().id() + "', icon '"
-                            + selection.preset().icon() + "'.",
+                    "Failed to set server icon for profile '" + profile.id() + "', preset '" + preset.id() + "', icon '"
+                            + preset.icon() + "'.",
                     e);
         }
+        lap(timings, PingTimings.Stage.ICON, mark);
     }
 
-    private SelectionResult selectPreset(Profile profile, RequestContext ctx, boolean count) {
-        List<Preset> presets = profile.presets();
-        if (presets == null || presets.isEmpty()) {
-            presets = List.of(Preset.fallback(config.fallbackIconPath()));
-        }
+    private SelectionResult selectPreset(
+            RuntimeSnapshot rt, CompiledProfile compiled, RequestContext ctx, boolean count) {
+        Profile profile = compiled.profile();
+        PresetSampler sampler = compiled.sampler();
+        List<Preset> presets = compiled.presets();
 
         ConfigModel.SelectionMode mode = profile.selectionMode();
         long now = ctx.nowMs();
-        long ttlMs = Math.max(1, profile.stickyTtlSeconds()) * 1000L;
-        String ip = ctx.ip();
+        long nowSeconds = now / 1000L;
+        long ttlSeconds = Math.max(1, profile.stickyTtlSeconds());
         boolean perIpFrames = profile.animation().mode() == ConfigModel.AnimationMode.PER_IP_STICKY;
-
-        if (ip != null) {
-            runStickyMaintenance(profile, now, ttlMs);
-        }
-
-        StickyEntry entry = getStickyEntry(profile.id(), ip, now, ttlMs);
-        Preset chosen;
+        StickyTable sticky = ctx.hasIp() ? rt.stickyTable(profile) : null;
+        long entry = sticky != null ? sticky.get(ctx.ipHi(), ctx.ipLo(), nowSeconds) : StickyTable.MISSING;
+        int chosen;
         String reason;
 
-        if (mode == ConfigModel.SelectionMode.STICKY_PER_IP && ip != null) {
-            if (entry != null) {
-                chosen = entry.preset();
+        if (mode == ConfigModel.SelectionMode.STICKY_PER_IP && sticky != null) {
+            // An entry whose preset was removed by a reload reads as -1 and is replaced here.
+            int stuck = entry != StickyTable.MISSING ? compiled.presetIndexOf(StickyTable.presetIndex(entry)) : -1;
+            if (stuck >= 0) {
+                chosen = stuck;
                 reason = "STICKY_PER_IP (sticky hit)";
             } else {
-                chosen = weightedRandom(presets, Objects.hash(ip, now));
-                entry = createStickyEntry(profile.id(), ip, chosen, now, perIpFrames);
+                // Seeded per TTL window, so an address that is not admitted yet still sees a stable preset.
+                chosen = sampler.pickIndex(SplitMix.hash(ctx.ipHash(), nowSeconds / ttlSeconds));
+                int frameSeed = perIpFrames ? computeFrameSeed(profile, now) : 0;
+                entry = sticky.put(ctx.ipHi(), ctx.ipLo(), compiled.stickyId(chosen), nowSeconds, frameSeed);
                 reason = "STICKY_PER_IP (new sticky, weighted random)";
             }
         } else if (mode == ConfigModel.SelectionMode.HASHED_PER_IP) {
-            chosen = hashedPreset(presets, ip);
+            chosen = hashedPresetIndex(presets.size(), ctx);
             reason = "HASHED_PER_IP (ip hash)";
-            if (perIpFrames && ip != null) {
-                entry = updateStickyEntry(profile.id(), ip, entry, chosen, now, ttlMs, true);
+            if (perIpFrames && sticky != null) {
+                entry = updateStickyPreset(compiled, sticky, ctx, chosen, nowSeconds);
             }
         } else if (mode == ConfigModel.SelectionMode.ROTATE) {
-            chosen = rotatePreset(profile.id(), presets);
+            chosen = rotatePresetIndex(compiled);
             reason = "ROTATE (counter)";
-            if (perIpFrames && ip != null) {
-                entry = updateStickyEntry(profile.id(), ip, entry, chosen, now, ttlMs, true);
+            if (perIpFrames && sticky != null) {
+                entry = updateStickyPreset(compiled, sticky, ctx, chosen, nowSeconds);
             }
         } else {
-            int totalWeight =
-                    presets.stream().mapToInt(p -> Math.max(1, p.weight())).sum();
-            chosen = weightedRandom(presets, ThreadLocalRandom.current().nextLong());
-            reason = "RANDOM (weighted total=" + totalWeight + ")";
-            if (perIpFrames && ip != null) {
-                entry = updateStickyEntry(profile.id(), ip, entry, chosen, now, ttlMs, true);
+            chosen = sampler.pickIndex(ThreadLocalRandom.current().nextLong());
+            reason = compiled.randomReason();
+            if (perIpFrames && sticky != null) {
+                entry = updateStickyPreset(compiled, sticky, ctx, chosen, nowSeconds);
             }
         }
 
-        return new SelectionResult(chosen, entry, reason);
+        return new SelectionResult(chosen, presets.get(chosen), entry, reason);
     }
 
-    private StickyEntry updateStickyEntry(
-            String profileId,
-            String ip,
-            StickyEntry existing,
-            Preset preset,
-            long now,
-            long ttlMs,
-            boolean ensureFrameSeed) {
-        if (ip == null) {
-            return null;
+    /** The preset pick of a {@link #isClientIndependent} profile: the same as {@link #selectPreset} would make. */
+    private int sharedPresetIndex(CompiledProfile compiled) {
+        if (compiled.presets().size() == 1) {
+            return 0;
         }
-        if (existing != null && isStickyValid(existing, now, ttlMs)) {
-            int frameSeed = existing.frameSeed();
-            StickyEntry updated = new StickyEntry(preset, existing.createdAtMs(), frameSeed);
-            stickyState(profileId).entries().put(ip, updated);
-            return updated;
+        if (compiled.profile().selectionMode() == ConfigModel.SelectionMode.ROTATE) {
+            return rotatePresetIndex(compiled);
         }
-
-        return createStickyEntry(profileId, ip, preset, now, ensureFrameSeed);
+        return compiled.sampler().pickIndex(ThreadLocalRandom.current().nextLong());
     }
 
-    private StickyEntry createStickyEntry(
-            String profileId, String ip, Preset preset, long now, boolean ensureFrameSeed) {
-        if (ip == null) {
-            return null;
+    /**
+     * True when the response only depends on the preset pick, time and player counts, never on the client: GLOBAL (or
+     * no) animation, no per-ping fake player range, and a selection mode that ignores the address.
+     */
+    private static boolean isClientIndependent(Profile profile) {
+        if (profile.animation().enabled() && profile.animation().mode() != ConfigModel.AnimationMode.GLOBAL) {
+            return false;
         }
-        int frameSeed = ensureFrameSeed ? computeFrameSeed(profileId, now) : 0;
-        StickyEntry fresh = new StickyEntry(preset, now, frameSeed);
-        StickyProfileState state = stickyState(profileId);
-        StickyEntry previous = state.entries().put(ip, fresh);
-        if (previous == null) {
-            state.order().addLast(ip);
+        Profile.FakePlayersSettings fakePlayers = profile.playerCount().fakePlayers();
+        if (fakePlayers.enabled()
+                && fakePlayers.mode() == Profile.FakePlayersMode.RANDOM
+                && fakePlayers.min() != fakePlayers.max()) {
+            return false;
         }
-        return fresh;
+        ConfigModel.SelectionMode mode = profile.selectionMode();
+        return mode == ConfigModel.SelectionMode.RANDOM
+                || mode == ConfigModel.SelectionMode.ROTATE
+                || profile.presets().size() == 1;
     }
 
-    private StickyEntry getStickyEntry(String profileId, String ip, long now, long ttlMs) {
-        if (ip == null) {
-            return null;
+    /**
+     * Renders the current frame of every preset of the active profile for the last observed player counts. Runs on
+     * the snapshot ticker; returns when the snapshot goes stale, or -1 when there is nothing to pre-render. Goes idle
+     * when no ping used the previous snapshot; the next ping that misses wakes it up again.
+     */
+    private long refreshResponseSnapshot(long nowMs) {
+        RuntimeSnapshot rt = runtime;
+        CompiledProfile compiled = rt.active();
+        Profile profile = compiled.profile();
+        long counts = observedCounts;
+        long hits = snapshotHits.sum();
+        ResponseSnapshot previous = responseSnapshot;
+        boolean unused = previous != null && nowMs >= previous.untilMs() && hits == hitsAtLastRefresh;
+        hitsAtLastRefresh = hits;
+        if (counts < 0 || unused || !compiled.clientIndependent()) {
+            responseSnapshot = null;
+            return -1L;
         }
-        StickyEntry existing = stickyState(profileId).entries().get(ip);
-        if (existing == null) {
-            return null;
+        int online = (int) (counts >>> 32);
+        int max = (int) counts;
+        long fromMs = Long.MIN_VALUE;
+        long untilMs = Long.MAX_VALUE;
+        if (profile.animation().enabled()) {
+            long interval = profile.animation().frameIntervalMillis();
+            fromMs = nowMs / interval * interval;
+            untilMs = fromMs + interval;
         }
-        if (!isStickyValid(existing, now, ttlMs)) {
-            stickyState(profileId).entries().remove(ip, existing);
-            return null;
+        // Read before rendering: a value published meanwhile makes the snapshot stale rather than wrong.
+        String[] periodic = rt.placeholders().periodicSnapshot();
+
+        RequestContext ctx = new RequestContext(false, 0L, 0L, 0L, nowMs);
+        PlayerCountService.PlayerCountResult playerCounts =
+                playerCountService.compute(profile, false, 0L, online, max, nowMs);
+        List<Preset> presets = compiled.presets();
+        MotdRenderResult[] renders = new MotdRenderResult[presets.size()];
+        for (int i = 0; i < renders.length; i++) {
+            SelectionResult selection = new SelectionResult(i, presets.get(i), StickyTable.MISSING, "snapshot");
+            renders[i] = renderMotd(rt, compiled, selection, playerCounts, ctx);
         }
-        return existing;
+        responseSnapshot = new ResponseSnapshot(compiled, fromMs, untilMs, counts, periodic, playerCounts, renders);
+        return untilMs == Long.MAX_VALUE ? -1L : untilMs;
     }
 
-    private boolean isStickyValid(StickyEntry entry, long now, long ttlMs) {
-        return entry != null && (now - entry.createdAtMs()) <= ttlMs;
+    private static long packCounts(int online, int max) {
+        return ((long) Math.max(0, online) << 32) | Math.max(0, max);
     }
 
-    private StickyProfileState stickyState(String profileId) {
-        return stickyStates.computeIfAbsent(
-                profileId,
-                key -> new StickyProfileState(
-                        new ConcurrentHashMap<>(), new ConcurrentLinkedDeque<>(), new AtomicInteger()));
+    private long updateStickyPreset(
+            CompiledProfile compiled, StickyTable sticky, RequestContext ctx, int presetIndex, long nowSeconds) {
+        int frameSeed = computeFrameSeed(compiled.profile(), ctx.nowMs());
+        return sticky.updatePreset(ctx.ipHi(), ctx.ipLo(), compiled.stickyId(presetIndex), nowSeconds, frameSeed);
     }
 
-    private Preset hashedPreset(List<Preset> presets, String ip) {
-        if (presets.isEmpty()) {
-            return Preset.fallback(config.fallbackIconPath());
+    private int hashedPresetIndex(int presetCount, RequestContext ctx) {
+        if (!ctx.hasIp()) {
+            return Math.floorMod(System.nanoTime(), presetCount);
         }
-        if (ip == null) {
-            int idx = Math.floorMod(System.nanoTime(), presets.size());
-            return presets.get(idx);
-        }
-        int idx = Math.floorMod(ip.hashCode(), presets.size());
-        return presets.get(idx);
-    }
-
-    private Preset rotatePreset(String profileId, List<Preset> presets) {
-        if (presets.isEmpty()) {
-            return Preset.fallback(config.fallbackIconPath());
-        }
-        AtomicInteger counter = rotateCounters.computeIfAbsent(profileId, key -> new AtomicInteger());
-        int idx = Math.floorMod(counter.getAndIncrement(), presets.size());
-        return presets.get(idx);
+        return SplitMix.nextInt(ctx.ipHash(), presetCount);
     }
 
-    private Preset weightedRandom(List<Preset> presets, long seed) {
-        int total = 0;
-        for (Preset p : presets) {
-            total += Math.max(1, p.weight());
-        }
-
-        int r = Math.floorMod(seed, total);
-
-        int acc = 0;
-        for (Preset p : presets) {
-            acc += Math.max(1, p.weight());
-            if (r < acc) {
-                return p;
-            }
-        }
-        return presets.get(0);
+    private int rotatePresetIndex(CompiledProfile compiled) {
+        return Math.floorMod(
+                compiled.rotateCounter().getAndIncrement(), compiled.presets().size());
     }
 
     private MotdRenderResult renderMotd(
-            Profile profile,
+            RuntimeSnapshot rt,
+            CompiledProfile compiled,
             SelectionResult selection,
             PlayerCountService.PlayerCountResult counts,
             RequestContext ctx) {
-        FrameSelection frameSelection = selectFrame(profile, selection, ctx);
+        FrameSelection frameSelection = selectFrame(compiled, selection, ctx);
         return renderMotd(
-                profile.id(), selection.preset(), frameSelection.frame(), counts, ctx, frameSelection.index());
+                rt,
+                compiled.profile().id(),
+                selection.preset(),
+                frameSelection.frame(),
+                counts,
+                ctx,
+                frameSelection.index());
     }
 
     private MotdRenderResult renderMotd(
+            RuntimeSnapshot rt,
             String profileId,
             Preset preset,
             CachedFrame frame,
             PlayerCountService.PlayerCountResult counts,
             RequestContext ctx,
             int frameIndex) {
-        String raw = frame.raw();
-        TextFormatService.ParseResult parsed;
-
-        if (frame.hasPlaceholders() && config.placeholdersEnabled()) {
-            PlaceholderValues values = buildPlaceholderValues(preset.id(), profileId, counts, frameIndex, ctx);
-            String replaced = applyPlaceholders(raw, values);
-            parsed = textFormatService.parseToComponentDetailed(replaced, config.colorFormat());
-        } else if (frame.hasPlaceholders() && !config.placeholdersEnabled()) {
-            parsed = textFormatService.parseToComponentDetailed(raw, config.colorFormat());
-        } else if (frame.cachedComponent() != null) {
-            parsed = new TextFormatService.ParseResult(
-                    frame.cachedComponent(), frame.usedFormat(), frame.fallbackUsed());
-        } else {
-            parsed = textFormatService.parseToComponentDetailed(raw, config.colorFormat());
+        RenderedMotd rendered = frame.staticRender();
+        boolean cached = true;
+        if (rendered == null) {
+            PlaceholderRegistry placeholders = rt.placeholders();
+            String[] values =
+                    placeholders.values(frame.template(), placeholders.periodicSnapshot(), counts, ctx.nowMs());
+            RenderCache cache = rt.renderCache();
+            RenderCache.Key key = new RenderCache.Key(profileId, preset.id(), frameIndex, values);
+            rendered = cache.get(key);
+            if (rendered == null) {
+                rendered = new RenderedMotd(frame.component().render(values));
+                cache.put(key, rendered);
+                cached = false;
+            }
         }
-
-        return new MotdRenderResult(raw, parsed, frameIndex);
+        return new MotdRenderResult(frame.raw(), rendered, frameIndex, cached);
     }
 
-    private FrameSelection selectFrame(Profile profile, SelectionResult selection, RequestContext ctx) {
-        Preset preset = selection.preset();
-        PresetCache cache = presetCache(profile.id(), preset);
+    private FrameSelection selectFrame(CompiledProfile compiled, SelectionResult selection, RequestContext ctx) {
+        Profile profile = compiled.profile();
+        PresetCache cache = compiled.caches().get(selection.presetIndex());
         boolean anim = profile.animation().enabled();
 
         List<CachedFrame> frames = cache.animatedFrames();
         if (anim && frames != null && !frames.isEmpty()) {
-            int idx = resolveFrameIndex(profile, selection, ctx, frames.size());
+            int idx = resolveFrameIndex(profile, selection.stickyEntry(), ctx, frames.size());
             return new FrameSelection(frames.get(idx), idx);
         }
 
         return new FrameSelection(cache.staticFrame(), 0);
     }
 
-    private int resolveFrameIndex(Profile profile, SelectionResult selection, RequestContext ctx, int size) {
+    /**
+     * The icon frame of the preset at {@code presetIndex}, on the same clock as its MOTD frames: sequences of equal
+     * length stay in step, and icons animate even when the MOTD is static.
+     */
+    private int iconFrameIndex(CompiledProfile compiled, int presetIndex, long stickyEntry, RequestContext ctx) {
+        int size = compiled.icons()[presetIndex].length;
+        if (size == 1 || !compiled.profile().animation().enabled()) {
+            return 0;
+        }
+        return resolveFrameIndex(compiled.profile(), stickyEntry, ctx, size);
+    }
+
+    private int resolveFrameIndex(Profile profile, long entry, RequestContext ctx, int size) {
         if (size <= 0) {
             return 0;
         }
-        if (profile.animation().mode() == ConfigModel.AnimationMode.PER_IP_STICKY && ctx.ip() != null) {
-            StickyEntry entry = selection.stickyEntry();
-            if (entry != null) {
-                return Math.floorMod(entry.frameSeed(), size);
+        if (profile.animation().mode() == ConfigModel.AnimationMode.PER_IP_STICKY && ctx.hasIp()) {
+            if (entry != StickyTable.MISSING) {
+                return Math.floorMod(StickyTable.frameSeed(entry), size);
             }
         }
         long interval = profile.animation().frameIntervalMillis();
         return (int) ((ctx.nowMs() / interval) % size);
     }
 
-    private int computeFrameSeed(String profileId, long nowMs) {
-        Profile profile = resolveProfile(profileId);
+    private int computeFrameSeed(Profile profile, long nowMs) {
         long interval = profile.animation().frameIntervalMillis();
         return Math.toIntExact(nowMs / interval);
     }
 
-    private String applyPlaceholders(String input, PlaceholderValues values) {
-        if (input == null || input.indexOf('%') < 0) {
-            return input;
-        }
-        StringBuilder out = new StringBuilder(input.length() + 16);
-        int len = input.length();
-        for (int i = 0; i < len; i++) {
-            char c = input.charAt(i);
-            if (c != '%') {
-                out.append(c);
-                continue;
-            }
-            String replacement = null;
-            if (matches(input, i, "%online%")) {
-                replacement = values.online();
-                i += "%online%".length() - 1;
-            } else if (matches(input, i, "%max%")) {
-                replacement = values.max();
-                i += "%max%".length() - 1;
-            } else if (matches(input, i, "%version%")) {
-                replacement = values.version();
-                i += "%version%".length() - 1;
-            } else if (matches(input, i, "%preset%")) {
-                replacement = values.preset();
-                i += "%preset%".length() - 1;
-            } else if (matches(input, i, "%profile%")) {
-                replacement = values.profile();
-                i += "%profile%".length() - 1;
-            } else if (matches(input, i, "%motd_frame%")) {
-                replacement = values.motdFrame();
-                i += "%motd_frame%".length() - 1;
-            } else if (matches(input, i, "%time%")) {
-                replacement = values.time();
-                i += "%time%".length() - 1;
-            }
-
-            if (replacement != null) {
-                out.append(replacement);
-            } else {
-                out.append('%');
-            }
-        }
-        return out.toString();
-    }
-
-    private String asIp(InetAddress address) {
-        return address == null ? null : address.getHostAddress();
-    }
-
-    private Profile resolveProfile(String profileId) {
-        Profile profile = config.profiles().get(profileId);
-        if (profile != null) {
-            return profile;
-        }
-        if (!config.profiles().isEmpty()) {
-            return config.profiles().values().iterator().next();
-        }
+    /** The profile used when the config has none. */
+    private static Profile fallbackProfile(ConfigModel config) {
         return new Profile(
                 "default",
                 ConfigModel.SelectionMode.STICKY_PER_IP,
                 10,
                 10000,
-                500,
                 new Profile.AnimationSettings(
                         true, ConfigModel.DEFAULT_FRAME_INTERVAL_MILLIS, ConfigModel.AnimationMode.GLOBAL),
                 new Profile.PlayerCountSettings(
@@ -525,13 +877,14 @@ public final class MotdService {
         return config.activeProfile();
     }
 
-    private Preset findPreset(Profile profile, String presetId) {
-        for (Preset preset : profile.presets()) {
-            if (preset.id().equalsIgnoreCase(presetId)) {
-                return preset;
+    private int findPreset(CompiledProfile compiled, String presetId) {
+        List<Preset> presets = compiled.presets();
+        for (int i = 0; i < presets.size(); i++) {
+            if (presets.get(i).id().equalsIgnoreCase(presetId)) {
+                return i;
             }
         }
-        return null;
+        return -1;
     }
 
     private List<String> splitMotd(String motd) {
@@ -551,137 +904,361 @@ public final class MotdService {
         return lines;
     }
 
-    private void rebuildPresetCache() {
-        presetCache.clear();
-        for (Profile profile : config.profiles().values()) {
-            for (Preset preset : profile.presets()) {
-                presetCache.put(presetCacheKey(profile.id(), preset.id()), buildPresetCache(profile, preset));
+    /** The profiles to compile; {@link #fallbackProfile} when the config has none. */
+    private static Collection<Profile> profilesOf(ConfigModel config) {
+        return config.profiles().isEmpty()
+                ? List.of(fallbackProfile(config))
+                : config.profiles().values();
+    }
+
+    private static List<Preset> presetsOf(ConfigModel config, Profile profile) {
+        List<Preset> presets = profile.presets();
+        return presets == null || presets.isEmpty() ? List.of(Preset.fallback(config.fallbackIconPath())) : presets;
+    }
+
+    /**
+     * Compiles the frames of every preset, one task per preset; the result lists them per profile id. A preset whose
+     * text is unchanged since {@code previous} (null on the first compile) keeps its compiled frames.
+     */
+    private CompletableFuture<Map<String, List<PresetCache>>> compileFramesAsync(
+            LoadedConfig loaded, RuntimeSnapshot previous, Executor executor) {
+        ConfigModel config = loaded.config();
+        boolean reusable = previous != null && sameFrameInputs(previous, loaded);
+        Map<String, List<CompletableFuture<PresetCache>>> pending = new LinkedHashMap<>();
+        List<CompletableFuture<PresetCache>> all = new ArrayList<>();
+        for (Profile profile : profilesOf(config)) {
+            CompiledProfile old = reusable ? previous.profiles().get(profile.id()) : null;
+            List<CompletableFuture<PresetCache>> presets = new ArrayList<>();
+            for (Preset preset : presetsOf(config, profile)) {
+                PresetCache cached = old != null ? old.cacheFor(preset) : null;
+                if (cached != null) {
+                    warnIfFallback(profile, preset, cached);
+                    presets.add(CompletableFuture.completedFuture(cached));
+                } else {
+                    presets.add(CompletableFuture.supplyAsync(
+                            () -> buildPresetCache(config, loaded.placeholders(), profile, preset), executor));
+                }
             }
+            pending.put(profile.id(), presets);
+            all.addAll(presets);
         }
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, List<PresetCache>> frames = new LinkedHashMap<>();
+            pending.forEach((profileId, presets) -> frames.put(
+                    profileId, presets.stream().map(CompletableFuture::join).toList()));
+            return frames;
+        });
+    }
+
+    /** Whether frames compiled for {@code previous} still apply: they also depend on these global settings. */
+    private static boolean sameFrameInputs(RuntimeSnapshot previous, LoadedConfig loaded) {
+        ConfigModel before = previous.config();
+        ConfigModel after = loaded.config();
+        return before.colorFormat() == after.colorFormat()
+                && before.placeholdersEnabled() == after.placeholdersEnabled()
+                && Arrays.equals(
+                        previous.placeholders().tokens(), loaded.placeholders().tokens());
     }
 
-    private PresetCache presetCache(String profileId, Preset preset) {
-        String key = presetCacheKey(profileId, preset.id());
-        return presetCache.computeIfAbsent(key, ignored -> buildPresetCache(resolveProfile(profileId), preset));
+    /**
+     * Puts compiled frames and icons together into a snapshot. Falls back to the first profile when the active
+     * profile is unknown. Profiles that exist in {@code previous} keep their rotate counter, sticky numbering and,
+     * unless their sticky limits changed, their sticky table.
+     */
+    private RuntimeSnapshot assemble(
+            LoadedConfig loaded,
+            IconCache.Icons icons,
+            Map<String, List<PresetCache>> frames,
+            RuntimeSnapshot previous) {
+        ConfigModel config = loaded.config();
+        Map<String, CompiledProfile> profiles = new LinkedHashMap<>();
+        Map<String, StickyTable> stickyTables = new ConcurrentHashMap<>();
+        for (Profile profile : profilesOf(config)) {
+            CompiledProfile old = previous != null ? previous.profiles().get(profile.id()) : null;
+            PresetSampler sampler = PresetSampler.of(presetsOf(config, profile));
+            profiles.put(
+                    profile.id(),
+                    new CompiledProfile(
+                            profile,
+                            sampler,
+                            frames.get(profile.id()),
+                            CompiledProfile.iconsOf(sampler, icons),
+                            "RANDOM (weighted total=" + sampler.totalWeight() + ")",
+                            isClientIndependent(profile),
+                            StickyIds.assign(
+                                    sampler.presets(),
+                                    old != null ? old.presets() : List.of(),
+                                    old != null ? old.stickyIds() : null),
+                            old != null ? old.rotateCounter() : new AtomicInteger(),
+                            old != null ? old.timings() : new PingTimings(System.nanoTime())));
+            StickyTable sticky = old != null ? previous.stickyTables().get(profile.id()) : null;
+            if (sticky != null && sameStickyLimits(old.profile(), profile)) {
+                stickyTables.put(profile.id(), sticky);
+            }
+        }
+        CompiledProfile active = profiles.get(loaded.activeProfileId());
+        if (active == null) {
+            active = profiles.values().iterator().next();
+        }
+        ConfigModel.RateLimitSettings rateLimit = config.performance().rateLimit();
+        return new RuntimeSnapshot(
+                config,
+                Collections.unmodifiableMap(profiles),
+                active,
+                icons,
+                loaded.placeholders(),
+                new RenderCache(config.performance().renderCacheSize()),
+                rateLimit.enabled() ? new PingRateLimiter(rateLimit) : null,
+                stickyTables);
     }
 
-    private String presetCacheKey(String profileId, String presetId) {
-        return profileId + ":" + presetId;
+    private static boolean sameStickyLimits(Profile before, Profile after) {
+        return before.stickyMaxEntriesPerProfile() == after.stickyMaxEntriesPerProfile()
+                && Math.max(1, before.stickyTtlSeconds()) == Math.max(1, after.stickyTtlSeconds());
     }
 
-    private PresetCache buildPresetCache(Profile profile, Preset preset) {
+    private PresetCache buildPresetCache(
+            ConfigModel config, PlaceholderRegistry placeholders, Profile profile, Preset preset) {
         List<String> lines = preset.motd();
         if (lines == null || lines.isEmpty()) {
             lines = ConfigModel.FALLBACK_MOTD_LINES;
         }
         String raw = lines.size() > 1 ? lines.get(0) + "\n" + lines.get(1) : lines.get(0) + "\n";
-        CachedFrame staticFrame = buildCachedFrame(raw, profile, preset);
+        CachedFrame staticFrame = buildCachedFrame(config, placeholders, raw, profile, preset, 0);
 
         List<String> rawFrames = preset.motdFrames();
         List<CachedFrame> frames = new ArrayList<>();
         if (rawFrames != null && !rawFrames.isEmpty()) {
-            for (String frame : rawFrames) {
-                frames.add(buildCachedFrame(frame, profile, preset));
+            for (int i = 0; i < rawFrames.size(); i++) {
+                frames.add(buildCachedFrame(config, placeholders, rawFrames.get(i), profile, preset, i));
             }
         }
 
         return new PresetCache(staticFrame, frames);
     }
 
-    private CachedFrame buildCachedFrame(String raw, Profile profile, Preset preset) {
-        boolean hasPlaceholders = hasPlaceholders(raw);
-        if (!hasPlaceholders) {
+    private CachedFrame buildCachedFrame(
+            ConfigModel config,
+            PlaceholderRegistry placeholders,
+            String raw,
+            Profile profile,
+            Preset preset,
+            int frameIndex) {
+        PlaceholderTemplate template = PlaceholderTemplate.compile(raw, placeholders.tokens());
+        ComponentTemplate component;
+        if (!template.hasPlaceholders() || !config.placeholdersEnabled()) {
             TextFormatService.ParseResult parsed =
                     textFormatService.parseToComponentDetailed(raw, config.colorFormat());
-            warnIfFallback(profile, preset, parsed);
-            return new CachedFrame(raw, false, parsed.component(), parsed.usedFormat(), parsed.fallbackUsed());
+            component = ComponentTemplate.fixed(textFormatService, config.colorFormat(), parsed);
+        } else {
+            String[] bound =
+                    placeholders.bound(new PlaceholderRegistry.FrameContext(profile.id(), preset.id(), frameIndex));
+            component = ComponentTemplate.compile(template, bound, config.colorFormat(), textFormatService);
+        }
+        RenderedMotd staticRender = null;
+        if (component.isStatic()) {
+            warnIfFallback(profile, preset, component.staticResult());
+            staticRender = RenderedMotd.precomputed(component.staticResult(), textFormatService);
         }
-        return new CachedFrame(raw, true, null, config.colorFormat(), false);
+        return new CachedFrame(raw, template, component, staticRender);
     }
 
-    private boolean hasPlaceholders(String input) {
-        if (input == null || input.indexOf('%') < 0) {
-            return false;
+    /** The icons a reload decodes: those of every profile, or only the active profile's with lazy icons. */
+    private Collection<String> collectIconPaths(LoadedConfig loaded) {
+        ConfigModel config = loaded.config();
+        Set<String> paths = ConcurrentHashMap.newKeySet();
+        paths.add(IconCache.DEFAULT_ICON_TARGET);
+        if (config.fallbackIconPath() != null) {
+            paths.add(config.fallbackIconPath());
         }
-        for (String token : SUPPORTED_PLACEHOLDERS) {
-            if (input.contains(token)) {
-                return true;
-            }
+        Collection<Profile> profiles = config.icons().lazy()
+                ? List.of(activeProfileOf(loaded))
+                : config.profiles().values();
+        for (Profile profile : profiles) {
+            paths.addAll(iconPathsOf(profile));
         }
-        return false;
+        return paths;
     }
 
-    private PlaceholderValues buildPlaceholderValues(
-            String presetId,
-            String profileId,
-            PlayerCountService.PlayerCountResult counts,
-            int frameIndex,
-            RequestContext ctx) {
-        String online = counts.hidePlayerCount() ? "???" : String.valueOf(counts.displayOnline());
-        String max = counts.hidePlayerCount() ? "???" : String.valueOf(counts.displayMax());
-        String version = Bukkit.getMinecraftVersion();
-        String time = LocalTime.ofInstant(Instant.ofEpochMilli(ctx.nowMs()), SYSTEM_ZONE)
-                .format(TIME_FORMAT);
-        return new PlaceholderValues(online, max, version, presetId, profileId, String.valueOf(frameIndex), time);
+    /** The profile {@link #assemble} makes active. */
+    private static Profile activeProfileOf(LoadedConfig loaded) {
+        Profile profile = loaded.config().profiles().get(loaded.activeProfileId());
+        return profile != null
+                ? profile
+                : profilesOf(loaded.config()).iterator().next();
     }
 
-    private boolean matches(String input, int index, String token) {
-        int end = index + token.length();
-        if (end > input.length()) {
-            return false;
+    /** The normalized icon paths used by {@code profile}'s presets. */
+    private static Set<String> iconPathsOf(Profile profile) {
+        Set<String> paths = new LinkedHashSet<>();
+        for (Preset preset : profile.presets()) {
+            String icon = IconCache.normalizeIconPath(preset.icon());
+            if (icon != null) {
+                paths.add(icon);
+            }
+            for (String frame : preset.iconFrames()) {
+                String normalized = IconCache.normalizeIconPath(frame);
+                if (normalized != null) {
+                    paths.add(normalized);
+                }
+            }
         }
-        return input.regionMatches(index, token, 0, token.length());
+        return paths;
     }
 
-    private Collection<String> collectIconPaths(ConfigModel config) {
-        Set<String> paths = ConcurrentHashMap.newKeySet();
-        paths.add("icons/default.png");
-        if (config.fallbackIconPath() != null) {
-            paths.add(config.fallbackIconPath());
+    /** Called under {@link #publishLock}: starts tracking the icons a reload loaded, or stops without lazy icons. */
+    private void resetIconLru(ConfigModel.IconSettings settings, IconCache.Icons icons) {
+        if (!settings.lazy()) {
+            iconLru = null;
+            return;
         }
-        for (Profile profile : config.profiles().values()) {
-            for (Preset preset : profile.presets()) {
-                if (preset.icon() != null && !preset.icon().isBlank()) {
-                    paths.add(preset.icon());
-                }
-            }
+        IconLru lru = iconLru;
+        if (lru == null || lru.maxEntries() != settings.lazyMaxEntries() || lru.maxBytes() != settings.lazyMaxBytes()) {
+            lru = new IconLru(settings.lazyMaxEntries(), settings.lazyMaxBytes());
         }
-        return paths;
+        lru.reset(icons.byPath());
+        iconLru = lru;
     }
 
-    private void runStickyMaintenance(Profile profile, long nowMs, long ttlMs) {
-        StickyProfileState state = stickyState(profile.id());
-        int interval = profile.stickyCleanupEveryNPings();
-        if (interval <= 0) {
+    /**
+     * With lazy icons, loads the icons the active profile is missing on the reload executor, then publishes them and
+     * evicts the least recently used ones over the limits. Pings get the default icon until then.
+     */
+    private void loadActiveIconsAsync() {
+        IconLru lru = iconLru;
+        if (lru == null) {
             return;
         }
-        int count = state.pingCounter().incrementAndGet();
-        if (count % interval != 0) {
+        RuntimeSnapshot rt = runtime;
+        Set<String> paths = iconPathsOf(rt.active().profile());
+        lru.touch(paths);
+        if (rt.icons().byPath().keySet().containsAll(paths)) {
             return;
         }
+        CompletableFuture.runAsync(
+                        () -> publishLazyIcons(lru, iconCache.loadMissing(runtime.icons(), paths)), reloadExecutor)
+                .exceptionally(error -> {
+                    logException(Level.WARNING, "Failed to load icons on demand.", error);
+                    return null;
+                });
+    }
 
-        StickyStateSupport.cleanupExpired(
-                state.entries(),
-                nowMs,
-                ttlMs,
-                STICKY_CLEANUP_BATCH,
-                (entry, threshold) -> entry != null && entry.createdAtMs() >= threshold);
+    private void publishLazyIcons(IconLru lru, Map<String, IconCache.Entry> loaded) {
+        List<String> evicted;
+        synchronized (publishLock) {
+            if (lru != iconLru) {
+                return; // A reload replaced the icon set meanwhile.
+            }
+            RuntimeSnapshot rt = runtime;
+            Set<String> pinned = iconPathsOf(rt.active().profile());
+            pinned.add(IconCache.DEFAULT_ICON_TARGET);
+            if (rt.config().fallbackIconPath() != null) {
+                pinned.add(rt.config().fallbackIconPath());
+            }
+            lru.added(loaded);
+            lru.touch(pinned);
+            evicted = lru.evict(pinned);
+            if (loaded.isEmpty() && evicted.isEmpty()) {
+                return;
+            }
+            runtime = rt.withIcons(rt.icons().with(loaded).without(evicted));
+        }
+        if (runtime.config().debugVerbose()) {
+            plugin.getLogger().info("Loaded " + loaded.size() + " icons on demand, evicted " + evicted.size() + ".");
+        }
+    }
 
-        enforceStickyLimit(profile, state);
+    /** Keeps the running sweeper across reloads unless its interval changed. */
+    private void restartStickySweeper(long intervalMillis) {
+        StickySweeper current = stickySweeper;
+        if (current != null && current.intervalMillis() == intervalMillis) {
+            return;
+        }
+        if (current != null) {
+            current.close();
+        }
+        StickySweeper sweeper =
+                new StickySweeper(() -> runtime.stickyTables().values(), intervalMillis, plugin.getLogger());
+        sweeper.start();
+        stickySweeper = sweeper;
     }
 
-    private void enforceStickyLimit(Profile profile, StickyProfileState state) {
-        int maxEntries = profile.stickyMaxEntriesPerProfile();
-        StickyStateSupport.enforceLimit(state.entries(), state.order(), maxEntries, STICKY_EVICTION_BATCH);
+    /** Keeps the running watcher across reloads unless its settings changed. */
+    private void restartIconWatcher(ConfigModel.IconSettings settings) {
+        IconWatcher current = iconWatcher;
+        Path directory = iconCache.directory();
+        if (current != null
+                && settings.watch()
+                && current.debounceMillis() == settings.watchDebounceMillis()
+                && current.directory().equals(directory)) {
+            return;
+        }
+        if (current != null) {
+            current.close();
+            iconWatcher = null;
+        }
+        if (!settings.watch()) {
+            return;
+        }
+        try {
+            iconWatcher = IconWatcher.start(
+                    directory, settings.watchDebounceMillis(), this::onIconsChanged, plugin.getLogger());
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("Failed to watch icons directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /** Runs on the icon watcher thread: re-decodes the changed files and swaps in just those icons. */
+    private void onIconsChanged(Set<String> fileNames) {
+        Map<String, IconCache.Entry> decoded = iconCache.redecode(runtime.icons(), fileNames);
+        if (decoded.isEmpty()) {
+            return;
+        }
+        synchronized (publishLock) {
+            RuntimeSnapshot rt = runtime;
+            runtime = rt.withIcons(rt.icons().with(decoded));
+        }
+        plugin.getLogger().info("Reloaded icons: " + String.join(", ", new TreeSet<>(decoded.keySet())));
     }
 
     public Diagnostics diagnostics() {
-        Map<String, Integer> stickyByProfile = new ConcurrentHashMap<>();
-        for (Map.Entry<String, StickyProfileState> entry : stickyStates.entrySet()) {
-            stickyByProfile.put(entry.getKey(), entry.getValue().entries().size());
+        RuntimeSnapshot rt = runtime;
+        Map<String, StickyTable.Stats> stickyByProfile = new ConcurrentHashMap<>();
+        for (Map.Entry<String, StickyTable> entry : rt.stickyTables().entrySet()) {
+            stickyByProfile.put(entry.getKey(), entry.getValue().stats());
         }
+        int rotateCounterProfiles = 0;
+        int presetCacheSize = 0;
+        Map<String, PingTimings.Stats> timingsByProfile = new LinkedHashMap<>();
+        long nowNanos = System.nanoTime();
+        for (CompiledProfile compiled : rt.profiles().values()) {
+            PingTimings.Stats timings = compiled.timings().stats(nowNanos);
+            if (timings.pings() > 0) {
+                timingsByProfile.put(compiled.profile().id(), timings);
+            }
+            if (compiled.rotateCounter().get() != 0) {
+                rotateCounterProfiles++;
+            }
+            presetCacheSize += compiled.caches().size();
+        }
+        StickySweeper sweeper = stickySweeper;
+        PingRateLimiter limiter = rt.rateLimiter();
+        ResponseSnapshot snapshot = responseSnapshot;
+        IconLru lru = iconLru;
         return new Diagnostics(
-                activeProfileId, stickyByProfile, rotateCounters.size(), presetCache.size(), formatWarnings.size());
+                rt.active().profile().id(),
+                snapshot != null ? snapshot.profile().profile().id() : null,
+                snapshotHits.sum(),
+                stickyByProfile,
+                sweeper != null ? sweeper.stats() : null,
+                limiter != null ? limiter.stats(System.currentTimeMillis()) : null,
+                rotateCounterProfiles,
+                presetCacheSize,
+                formatWarnings.size(),
+                rt.renderCache().stats(),
+                rt.icons().byPath().size(),
+                lru != null ? lru.stats() : null,
+                timingsByProfile);
     }
 
     private String ctxString(ServerListPingEvent event) {
@@ -689,8 +1266,8 @@ public final class MotdService {
         return address != null ? address.getHostAddress() : "unknown";
     }
 
-    private void logException(Level level, String message, Exception e) {
-        if (config.debugVerbose()) {
+    private void logException(Level level, String message, Throwable e) {
+        if (runtime.config().debugVerbose()) {
             plugin.getLogger().log(level, message, e);
         } else {
             String suffix = e.getClass().getSimpleName();
@@ -699,9 +1276,33 @@ public final class MotdService {
         }
     }
 
-    private void logSummary(ConfigModel.LoadResult result) {
+    /** Logs how much compiled and sticky state the reload carried over; silent when it kept nothing. */
+    private void logReuse(RuntimeSnapshot previous, RuntimeSnapshot next) {
+        int presets = 0;
+        int reused = 0;
+        for (CompiledProfile compiled : next.profiles().values()) {
+            CompiledProfile old = previous.profiles().get(compiled.profile().id());
+            presets += compiled.caches().size();
+            if (old == null) {
+                continue;
+            }
+            for (PresetCache cache : compiled.caches()) {
+                if (old.caches().stream().anyMatch(kept -> kept == cache)) {
+                    reused++;
+                }
+            }
+        }
+        int stickyTables = next.stickyTables().size();
+        if (reused > 0 || stickyTables > 0) {
+            plugin.getLogger()
+                    .info("Reload kept " + reused + " of " + presets + " compiled presets and " + stickyTables
+                            + " sticky tables.");
+        }
+    }
+
+    private void logSummary(ConfigModel.LoadResult result, RuntimeSnapshot rt) {
         StringBuilder summary = new StringBuilder("Validation summary: activeProfile=");
-        summary.append(activeProfileId);
+        summary.append(rt.active().profile().id());
         summary.append(", profiles=").append(result.config().profiles().size());
         summary.append(", presets=");
         summary.append(result.presetCounts());
@@ -709,6 +1310,20 @@ public final class MotdService {
         plugin.getLogger().info(summary.toString());
     }
 
+    /** Reports the fallbacks of reused frames again, since reloads reset the reported ones. */
+    private void warnIfFallback(Profile profile, Preset preset, PresetCache cache) {
+        warnIfFallback(profile, preset, cache.staticFrame());
+        for (CachedFrame frame : cache.animatedFrames()) {
+            warnIfFallback(profile, preset, frame);
+        }
+    }
+
+    private void warnIfFallback(Profile profile, Preset preset, CachedFrame frame) {
+        if (frame.component().isStatic()) {
+            warnIfFallback(profile, preset, frame.component().staticResult());
+        }
+    }
+
     private void warnIfFallback(Profile profile, Preset preset, TextFormatService.ParseResult result) {
         if (result == null || !result.fallbackUsed()) {
             return;
@@ -744,30 +1359,190 @@ public final class MotdService {
         }
     }
 
-    private record StickyEntry(Preset preset, long createdAtMs, int frameSeed) {}
+    /** {@code stickyEntry} is a {@link StickyTable} entry or {@link StickyTable#MISSING}. */
+    private record SelectionResult(int presetIndex, Preset preset, long stickyEntry, String reason) {}
 
-    private record StickyProfileState(
-            Map<String, StickyEntry> entries, Deque<String> order, AtomicInteger pingCounter) {}
+    /** Stages of {@link #reloadAsync()}; ICONS and FRAMES run at the same time. */
+    public enum ReloadStage {
+        CONFIG,
+        ICONS,
+        FRAMES,
+        SWAP
+    }
 
-    private record SelectionResult(Preset preset, StickyEntry stickyEntry, String reason) {}
+    /** {@code stageNanos} holds the stages that ran; a failed reload stops after the failing one. */
+    public record ReloadResult(boolean success, int warnings, Map<ReloadStage, Long> stageNanos, long totalNanos) {}
 
-    public record ReloadResult(boolean success, int warnings) {}
+    /** The parsed config of a reload, with the active profile and placeholders resolved for it. */
+    private record LoadedConfig(
+            ConfigModel.LoadResult result, String activeProfileId, PlaceholderRegistry placeholders) {
+        ConfigModel config() {
+            return result.config();
+        }
+    }
 
+    /** {@code staticRender} is set when the frame renders the same for every ping. */
     private record CachedFrame(
-            String raw,
-            boolean hasPlaceholders,
-            Component cachedComponent,
-            ColorFormat usedFormat,
-            boolean fallbackUsed) {}
+            String raw, PlaceholderTemplate template, ComponentTemplate component, RenderedMotd staticRender) {}
 
     private record PresetCache(CachedFrame staticFrame, List<CachedFrame> animatedFrames) {}
 
-    private record FrameSelection(CachedFrame frame, int index) {}
+    /**
+     * A profile ready for pings; {@code caches} and {@code icons} are indexed like {@code sampler.presets()}, and
+     * {@code icons} holds every icon frame of a preset, decoded at reload. The rotate counter and ping timings are the
+     * only mutable parts and survive profile switches and reloads.
+     */
+    private record CompiledProfile(
+            Profile profile,
+            PresetSampler sampler,
+            List<PresetCache> caches,
+            CachedServerIcon[][] icons,
+            String randomReason,
+            boolean clientIndependent,
+            StickyIds stickyIds,
+            AtomicInteger rotateCounter,
+            PingTimings timings) {
+        static CachedServerIcon[][] iconsOf(PresetSampler sampler, IconCache.Icons icons) {
+            List<Preset> presets = sampler.presets();
+            CachedServerIcon[][] presetIcons = new CachedServerIcon[presets.size()][];
+            for (int i = 0; i < presetIcons.length; i++) {
+                presetIcons[i] = icons.pick(presets.get(i));
+            }
+            return presetIcons;
+        }
 
-    private record MotdRenderResult(String raw, TextFormatService.ParseResult parsed, int frameIndex) {}
+        List<Preset> presets() {
+            return sampler.presets();
+        }
 
-    private record PlaceholderValues(
-            String online, String max, String version, String preset, String profile, String motdFrame, String time) {}
+        /** What sticky entries store for the preset at {@code presetIndex}. */
+        int stickyId(int presetIndex) {
+            return stickyIds.stickyId(presetIndex);
+        }
+
+        /** The index of the preset a sticky entry points at, or -1 when a reload removed it. */
+        int presetIndexOf(int stickyId) {
+            return stickyIds.presetIndexOf(stickyId);
+        }
+
+        /** The sticky number of each of {@code presetIds}, -1 for ids this profile does not have. */
+        int[] stickyIdsOf(List<String> presetIds) {
+            Map<String, Integer> byId = new HashMap<>();
+            List<Preset> presets = presets();
+            for (int i = 0; i < presets.size(); i++) {
+                byId.putIfAbsent(presets.get(i).id(), stickyId(i));
+            }
+            int[] ids = new int[presetIds.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = byId.getOrDefault(presetIds.get(i), -1);
+            }
+            return ids;
+        }
+
+        /** The preset id of every sticky number, null for numbers of removed presets. */
+        List<String> presetIdsBySticky() {
+            int[] presetById = stickyIds.presetById();
+            List<String> ids = new ArrayList<>(presetById.length);
+            for (int index : presetById) {
+                ids.add(index >= 0 ? presets().get(index).id() : null);
+            }
+            return ids;
+        }
+
+        /** The compiled frames of {@code preset} if this profile has a preset with the same id and text. */
+        PresetCache cacheFor(Preset preset) {
+            int index = Preset.indexOfSameText(presets(), preset);
+            return index >= 0 ? caches.get(index) : null;
+        }
+
+        CompiledProfile withIcons(IconCache.Icons icons) {
+            return new CompiledProfile(
+                    profile,
+                    sampler,
+                    caches,
+                    iconsOf(sampler, icons),
+                    randomReason,
+                    clientIndependent,
+                    stickyIds,
+                    rotateCounter,
+                    timings);
+        }
+    }
+
+    /**
+     * Everything a ping reads, compiled at reload and published with one volatile write. Sticky tables are created
+     * per profile on first use and carried over by reloads that keep the profile's sticky limits.
+     */
+    private record RuntimeSnapshot(
+            ConfigModel config,
+            Map<String, CompiledProfile> profiles,
+            CompiledProfile active,
+            IconCache.Icons icons,
+            PlaceholderRegistry placeholders,
+            RenderCache renderCache,
+            PingRateLimiter rateLimiter,
+            Map<String, StickyTable> stickyTables) {
+        RuntimeSnapshot withActive(CompiledProfile profile) {
+            return new RuntimeSnapshot(
+                    config, profiles, profile, icons, placeholders, renderCache, rateLimiter, stickyTables);
+        }
+
+        /** A copy using {@code updated} icons; everything else, including sticky state, is shared. */
+        RuntimeSnapshot withIcons(IconCache.Icons updated) {
+            Map<String, CompiledProfile> next = new LinkedHashMap<>();
+            for (CompiledProfile profile : profiles.values()) {
+                next.put(profile.profile().id(), profile.withIcons(updated));
+            }
+            return new RuntimeSnapshot(
+                    config,
+                    Collections.unmodifiableMap(next),
+                    next.get(active.profile().id()),
+                    updated,
+                    placeholders,
+                    renderCache,
+                    rateLimiter,
+                    stickyTables);
+        }
+
+        /** {@code profileId}'s profile, or the active one when it is unknown. */
+        CompiledProfile resolve(String profileId) {
+            CompiledProfile profile = profileId != null ? profiles.get(profileId) : null;
+            return profile != null ? profile : active;
+        }
+
+        StickyTable stickyTable(Profile profile) {
+            return stickyTables.computeIfAbsent(
+                    profile.id(),
+                    key -> new StickyTable(
+                            profile.stickyMaxEntriesPerProfile(), Math.max(1, profile.stickyTtlSeconds())));
+        }
+    }
+
+    private record FrameSelection(CachedFrame frame, int index) {}
+
+    /** {@code cached} is false when the frame had to be rendered for this call. */
+    private record MotdRenderResult(String raw, RenderedMotd rendered, int frameIndex, boolean cached) {}
+
+    /**
+     * Pre-rendered responses of a client-independent profile, one per preset, valid from {@code fromMs} until
+     * {@code untilMs} for the player counts in {@code packedCounts} and the {@code periodic} placeholder values.
+     */
+    private record ResponseSnapshot(
+            CompiledProfile profile,
+            long fromMs,
+            long untilMs,
+            long packedCounts,
+            String[] periodic,
+            PlayerCountService.PlayerCountResult playerCounts,
+            MotdRenderResult[] renders) {
+        boolean covers(CompiledProfile current, long nowMs, int online, int max, String[] currentPeriodic) {
+            return profile == current
+                    && nowMs >= fromMs
+                    && nowMs < untilMs
+                    && packedCounts == packCounts(online, max)
+                    && periodic == currentPeriodic;
+        }
+    }
 
     public record PreviewResult(
             String profileId,
@@ -781,12 +1556,35 @@ public final class MotdService {
             String iconPath,
             PlayerCountService.PlayerCountResult playerCounts) {}
 
+    /**
+     * {@code snapshotProfile} is null while no response snapshot is published, {@code stickySweeper} until the first
+     * reload, {@code rateLimit} while rate limiting is disabled and {@code lazyIcons} without lazy icon loading.
+     * {@code pingTimings} only has profiles that handled pings since timings were enabled.
+     */
     public record Diagnostics(
             String activeProfile,
-            Map<String, Integer> stickyEntriesByProfile,
+            String snapshotProfile,
+            long snapshotHits,
+            Map<String, StickyTable.Stats> stickyByProfile,
+            StickySweeper.Stats stickySweeper,
+            PingRateLimiter.Stats rateLimit,
             int rotateCounterProfiles,
             int presetCacheSize,
-            int formatWarnings) {}
-
-    private record RequestContext(String ip, long nowMs) {}
+            int formatWarnings,
+            RenderCache.Stats renderCache,
+            int loadedIcons,
+            IconLru.Stats lazyIcons,
+            Map<String, PingTimings.Stats> pingTimings) {}
+
+    /** The client address packed for {@link StickyTable}; {@code hasIp()} is false when the address is unknown. */
+    private record RequestContext(boolean hasIp, long ipHi, long ipLo, long ipHash, long nowMs) {
+        static RequestContext of(InetAddress address, long nowMs) {
+            if (address == null) {
+                return new RequestContext(false, 0L, 0L, 0L, nowMs);
+            }
+            long hi = PackedIp.hi(address);
+            long lo = PackedIp.lo(address);
+            return new RequestContext(true, hi, lo, PackedIp.hash(hi, lo), nowMs);
+        }
+    }
 }
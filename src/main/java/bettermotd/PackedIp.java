@@ -0,0 +1,43 @@
+package bettermotd;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+/**
+ * Client addresses as two longs, the 128-bit IPv6 form with IPv4 addresses mapped to {@code ::ffff:a.b.c.d}. Used as
+ * sticky keys so pings never format the address into a string.
+ */
+final class PackedIp {
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF_0000_0000L;
+
+    private PackedIp() {}
+
+    static long hi(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            return 0L;
+        }
+        return toLong(address.getAddress(), 0);
+    }
+
+    static long lo(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the address itself, packed into an int; getAddress() would copy.
+            return IPV4_MAPPED_PREFIX | (address.hashCode() & 0xFFFF_FFFFL);
+        }
+        return toLong(address.getAddress(), 8);
+    }
+
+    /** Well-mixed hash of a packed address, e.g. for per-IP picks. */
+    static long hash(long hi, long lo) {
+        return SplitMix.hash(hi, lo);
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFFL);
+        }
+        return value;
+    }
+}
@@ -1,144 +1,115 @@
 package bettermotd;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 import net.kyori.adventure.text.Component;
 import org.bukkit.event.server.ServerListPingEvent;
 
+/**
+ * Applies Paper-only ping settings. When the running server has every Paper method we use, calls go straight through
+ * {@link TypedPaperPing}; older builds that lack some of them get {@link MethodHandle}s bound once at startup for the
+ * methods they do have. Neither path boxes arguments or runs access checks per ping.
+ */
 public final class PaperPingAdapter {
 
-    private final Logger logger;
-
-    private final Class<?> paperEventClass;
-
-    private final Method motdMethod;
-    private final Method hidePlayersMethod;
-    private final Method setPlayerSampleMethod;
+    static final String PAPER_EVENT_CLASS = "com.destroystokyo.paper.event.server.PaperServerListPingEvent";
 
-    private final Method setNumPlayersMethod;
+    private final Logger logger;
+    private final Access access;
 
     private final AtomicBoolean warnedMotd = new AtomicBoolean();
     private final AtomicBoolean warnedOnline = new AtomicBoolean();
 
     public PaperPingAdapter(Logger logger) {
-        this.logger = logger;
+        this(logger, true);
+    }
 
-        Class<?> paperClass = null;
-        Method motd = null;
-        Method hidePlayers = null;
-        Method sample = null;
-        Method setNumPlayers = null;
+    private PaperPingAdapter(Logger logger, boolean allowTyped) {
+        this.logger = logger;
 
+        Access resolved = null;
         try {
-            paperClass = Class.forName("com.destroystokyo.paper.event.server.PaperServerListPingEvent");
-
-            motd = paperClass.getMethod("motd", Component.class);
-
-            try {
-                hidePlayers = paperClass.getMethod("setHidePlayers", boolean.class);
-            } catch (NoSuchMethodException ignored) {
-            }
-
-            sample = findPlayerSampleMethod(paperClass);
-
-            setNumPlayers = findSetNumPlayersMethod(paperClass);
-
-        } catch (Exception e) {
+            Class<?> paperClass = Class.forName(PAPER_EVENT_CLASS);
+            resolved = allowTyped && TypedPaperPing.supports(paperClass)
+                    ? new TypedPaperPing()
+                    : HandleAccess.bind(paperClass);
+        } catch (Exception | LinkageError e) {
             if (logger != null) {
                 logger.info("Paper API not detected. Using Bukkit ping handling.");
             }
         }
+        this.access = resolved;
+    }
 
-        this.paperEventClass = paperClass;
-        this.motdMethod = motd;
-        this.hidePlayersMethod = hidePlayers;
-        this.setPlayerSampleMethod = sample;
-        this.setNumPlayersMethod = setNumPlayers;
+    /** An adapter that always uses the method handle path, as on Paper builds that lack a typed method. */
+    static PaperPingAdapter withMethodHandles(Logger logger) {
+        return new PaperPingAdapter(logger, false);
     }
 
     public boolean isPaperEvent(ServerListPingEvent event) {
-        return paperEventClass != null && paperEventClass.isInstance(event);
+        return access != null && access.isPaperEvent(event);
+    }
+
+    /** True when Paper calls go through the typed path rather than bound method handles. */
+    boolean isTyped() {
+        return access instanceof TypedPaperPing;
     }
 
     public boolean applyMotd(ServerListPingEvent event, Component component) {
-        if (!isPaperEvent(event) || motdMethod == null || component == null) {
+        if (!isPaperEvent(event) || component == null) {
             return false;
         }
         try {
-            motdMethod.invoke(event, component);
-            return true;
-        } catch (Exception e) {
+            return access.motd(event, component);
+        } catch (RuntimeException e) {
             warnMotd("Failed to apply component MOTD: " + e.getMessage());
             return false;
         }
     }
 
     public boolean applyOnlinePlayers(ServerListPingEvent event, int online) {
-        if (!isPaperEvent(event) || setNumPlayersMethod == null) {
+        if (!isPaperEvent(event)) {
             return false;
         }
 
         int safeOnline = Math.max(0, online);
 
         try {
-            setNumPlayersMethod.invoke(event, safeOnline);
-            return true;
-        } catch (Exception e) {
+            return access.setNumPlayers(event, safeOnline);
+        } catch (RuntimeException e) {
             warnOnline("Failed to apply online player count via Paper API: " + e.getMessage());
             return false;
         }
     }
 
     public boolean applyHidePlayers(ServerListPingEvent event, boolean hide) {
-        if (!isPaperEvent(event) || hidePlayersMethod == null) {
+        if (!isPaperEvent(event)) {
             return false;
         }
         try {
-            hidePlayersMethod.invoke(event, hide);
-            return true;
-        } catch (Exception e) {
+            return access.setHidePlayers(event, hide);
+        } catch (RuntimeException e) {
             return false;
         }
     }
 
     public boolean applyDisableHover(ServerListPingEvent event) {
-        if (!isPaperEvent(event) || setPlayerSampleMethod == null) {
+        if (!isPaperEvent(event)) {
             return false;
         }
         try {
-            setPlayerSampleMethod.invoke(event, List.of());
-            return true;
-        } catch (Exception e) {
+            return access.clearPlayerSample(event);
+        } catch (RuntimeException e) {
             return false;
         }
     }
 
-    private Method findPlayerSampleMethod(Class<?> paperClass) {
-        for (Method method : paperClass.getMethods()) {
-            if (!method.getName().equals("setPlayerSample")) continue;
-
-            Class<?>[] params = method.getParameterTypes();
-            if (params.length == 1 && java.util.Collection.class.isAssignableFrom(params[0])) {
-                return method;
-            }
-        }
-        return null;
-    }
-
-    private Method findSetNumPlayersMethod(Class<?> paperClass) {
-        for (Method method : paperClass.getMethods()) {
-            if (!method.getName().equals("setNumPlayers")) continue;
-
-            Class<?>[] params = method.getParameterTypes();
-            if (params.length == 1 && params[0] == int.class) {
-                return method;
-            }
-        }
-        return null;
-    }
-
     private void warnMotd(String message) {
         if (logger == null) return;
         if (warnedMotd.compareAndSet(false, true)) {
@@ -152,4 +123,152 @@ public final class PaperPingAdapter {
             logger.warning(message);
         }
     }
+
+    /**
+     * Paper event calls. Each method is only called with a Paper event and returns false when the running server does
+     * not have the underlying method.
+     */
+    interface Access {
+        boolean isPaperEvent(ServerListPingEvent event);
+
+        boolean motd(ServerListPingEvent event, Component component);
+
+        boolean setNumPlayers(ServerListPingEvent event, int online);
+
+        boolean setHidePlayers(ServerListPingEvent event, boolean hide);
+
+        boolean clearPlayerSample(ServerListPingEvent event);
+    }
+
+    /** Method handles for whichever Paper methods exist, adapted to exact signatures so calls do not box. */
+    private static final class HandleAccess implements Access {
+        private static final MethodType MOTD =
+                MethodType.methodType(void.class, ServerListPingEvent.class, Component.class);
+        private static final MethodType SET_INT =
+                MethodType.methodType(void.class, ServerListPingEvent.class, int.class);
+        private static final MethodType SET_BOOLEAN =
+                MethodType.methodType(void.class, ServerListPingEvent.class, boolean.class);
+        private static final MethodType SET_SAMPLE =
+                MethodType.methodType(void.class, ServerListPingEvent.class, Collection.class);
+
+        private final Class<?> paperClass;
+        private final MethodHandle motd;
+        private final MethodHandle setNumPlayers;
+        private final MethodHandle setHidePlayers;
+        private final MethodHandle setPlayerSample;
+
+        private HandleAccess(
+                Class<?> paperClass,
+                MethodHandle motd,
+                MethodHandle setNumPlayers,
+                MethodHandle setHidePlayers,
+                MethodHandle setPlayerSample) {
+            this.paperClass = paperClass;
+            this.motd = motd;
+            this.setNumPlayers = setNumPlayers;
+            this.setHidePlayers = setHidePlayers;
+            this.setPlayerSample = setPlayerSample;
+        }
+
+        static HandleAccess bind(Class<?> paperClass) {
+            return new HandleAccess(
+                    paperClass,
+                    bind(find(paperClass, "motd", Component.class), MOTD),
+                    bind(find(paperClass, "setNumPlayers", int.class), SET_INT),
+                    bind(find(paperClass, "setHidePlayers", boolean.class), SET_BOOLEAN),
+                    // Builds before 1.20.6 lack getListedPlayers; their sample is replaced through setPlayerSample.
+                    bind(find(paperClass, "setPlayerSample", Collection.class), SET_SAMPLE));
+        }
+
+        @Override
+        public boolean isPaperEvent(ServerListPingEvent event) {
+            return paperClass.isInstance(event);
+        }
+
+        @Override
+        public boolean motd(ServerListPingEvent event, Component component) {
+            if (motd == null) {
+                return false;
+            }
+            try {
+                motd.invokeExact(event, component);
+                return true;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public boolean setNumPlayers(ServerListPingEvent event, int online) {
+            if (setNumPlayers == null) {
+                return false;
+            }
+            try {
+                setNumPlayers.invokeExact(event, online);
+                return true;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public boolean setHidePlayers(ServerListPingEvent event, boolean hide) {
+            if (setHidePlayers == null) {
+                return false;
+            }
+            try {
+                setHidePlayers.invokeExact(event, hide);
+                return true;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public boolean clearPlayerSample(ServerListPingEvent event) {
+            if (setPlayerSample == null) {
+                return false;
+            }
+            try {
+                setPlayerSample.invokeExact(event, (Collection<?>) List.of());
+                return true;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        /** Finds a public method taking one parameter of (a subtype of) {@code parameter}; null if there is none. */
+        private static Method find(Class<?> paperClass, String name, Class<?> parameter) {
+            for (Method method : paperClass.getMethods()) {
+                if (!method.getName().equals(name)) continue;
+
+                Class<?>[] params = method.getParameterTypes();
+                if (params.length == 1 && (params[0] == parameter || parameter.isAssignableFrom(params[0]))) {
+                    return method;
+                }
+            }
+            return null;
+        }
+
+        private static MethodHandle bind(Method method, MethodType type) {
+            if (method == null) {
+                return null;
+            }
+            try {
+                return MethodHandles.publicLookup().unreflect(method).asType(type);
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable t) {
+            if (t instanceof RuntimeException e) {
+                return e;
+            }
+            if (t instanceof Error e) {
+                throw e;
+            }
+            return new IllegalStateException(t);
+        }
+    }
 }
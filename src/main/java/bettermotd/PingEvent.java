@@ -0,0 +1,52 @@
+package bettermotd;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event for one handled server list ping; its duration covers the whole ping. Pings only create
+ * one while a recording has the event enabled ({@link #enabled()}), so without a recording they pay a flag read.
+ */
+@Name("bettermotd.Ping")
+@Label("Server List Ping")
+@Category("BetterMOTD")
+@Description("A server list ping answered by BetterMOTD")
+@StackTrace(false)
+final class PingEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(PingEvent.class);
+
+    @Label("Profile")
+    String profile;
+
+    @Label("Preset")
+    String preset;
+
+    @Label("Selection Mode")
+    String selectionMode;
+
+    @Label("MOTD Frame")
+    int frame;
+
+    @Label("Cache Hit")
+    @Description("The MOTD came pre-rendered: a static frame, the response snapshot or the render cache")
+    boolean cacheHit;
+
+    @Label("Render Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderDuration;
+
+    @Label("Throttled")
+    @Description("Over the rate limit, answered with the first preset")
+    boolean throttled;
+
+    static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+}
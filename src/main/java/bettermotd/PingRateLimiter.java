@@ -0,0 +1,160 @@
+package bettermotd;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-address and per-prefix (IPv4 /24, IPv6 /48) token buckets for status pings. A ping passes when both buckets
+ * have a token; the address token is refunded when the prefix bucket turns the ping away, so a busy neighbourhood
+ * does not also drain the budget of each address in it.
+ *
+ * <p>Each bucket is a single theoretical-arrival-time long (GCRA): it is full again once that time has passed, so an
+ * idle bucket is indistinguishable from a missing one and can be overwritten. That keeps the tables fixed-size
+ * without any sweeping: a new key replaces the fullest of the four slots in its set. A bucket that is throttling its
+ * key is never replaced, since that would hand the key a full bucket again; when all four are throttling, the new key
+ * is throttled as well until one of them has drained.
+ */
+final class PingRateLimiter {
+
+    static final int TABLE_ENTRIES = 8192;
+    static final int WAYS = 4;
+
+    private final BucketTable ipBuckets;
+    private final BucketTable prefixBuckets;
+    private final LongAdder throttledByIp = new LongAdder();
+    private final LongAdder throttledByPrefix = new LongAdder();
+
+    PingRateLimiter(ConfigModel.RateLimitSettings settings) {
+        this.ipBuckets = new BucketTable(TABLE_ENTRIES, settings.ipBurst(), settings.ipPerSecond());
+        this.prefixBuckets = new BucketTable(TABLE_ENTRIES, settings.prefixBurst(), settings.prefixPerSecond());
+    }
+
+    /** Returns false when the ping from the packed address is over budget. */
+    boolean tryAcquire(long hi, long lo, long nowMs) {
+        if (!ipBuckets.tryAcquire(hi, lo, nowMs)) {
+            throttledByIp.increment();
+            return false;
+        }
+        if (!prefixBuckets.tryAcquire(prefixHi(hi, lo), prefixLo(hi, lo), nowMs)) {
+            ipBuckets.refund(hi, lo);
+            throttledByPrefix.increment();
+            return false;
+        }
+        return true;
+    }
+
+    Stats stats(long nowMs) {
+        return new Stats(
+                throttledByIp.sum(), throttledByPrefix.sum(), ipBuckets.active(nowMs), prefixBuckets.active(nowMs));
+    }
+
+    static long prefixHi(long hi, long lo) {
+        return isIpv4(hi, lo) ? hi : hi & 0xFFFF_FFFF_FFFF_0000L;
+    }
+
+    static long prefixLo(long hi, long lo) {
+        return isIpv4(hi, lo) ? lo & ~0xFFL : 0L;
+    }
+
+    private static boolean isIpv4(long hi, long lo) {
+        return hi == 0L && (lo >>> 32) == 0xFFFFL;
+    }
+
+    /** {@code activeIps} and {@code activePrefixes} count buckets that are not full. */
+    public record Stats(long throttledByIp, long throttledByPrefix, int activeIps, int activePrefixes) {
+        public long throttled() {
+            return throttledByIp + throttledByPrefix;
+        }
+    }
+
+    /** Four-way set-associative table of buckets; sets are guarded by striped locks. */
+    private static final class BucketTable {
+        private static final int STRIPES = 64;
+
+        private final long[] keyHi;
+        private final long[] keyLo;
+        /** Theoretical arrival time in epoch millis; 0 for an empty slot. */
+        private final long[] arrival;
+
+        private final Object[] locks = new Object[STRIPES];
+        private final int setMask;
+        private final long intervalMillis;
+        private final long toleranceMillis;
+
+        BucketTable(int entries, int burst, double perSecond) {
+            keyHi = new long[entries];
+            keyLo = new long[entries];
+            arrival = new long[entries];
+            setMask = entries / WAYS - 1;
+            for (int i = 0; i < STRIPES; i++) {
+                locks[i] = new Object();
+            }
+            intervalMillis = Math.max(1L, Math.round(1000.0 / perSecond));
+            toleranceMillis = intervalMillis * (burst - 1);
+        }
+
+        boolean tryAcquire(long hi, long lo, long nowMs) {
+            int set = (int) PackedIp.hash(hi, lo) & setMask;
+            int base = set * WAYS;
+            synchronized (locks[set & (STRIPES - 1)]) {
+                int slot = -1;
+                int victim = base;
+                for (int i = base; i < base + WAYS; i++) {
+                    if (arrival[i] != 0L && keyHi[i] == hi && keyLo[i] == lo) {
+                        slot = i;
+                        break;
+                    }
+                    if (arrival[i] < arrival[victim]) {
+                        victim = i;
+                    }
+                }
+                long current;
+                if (slot < 0) {
+                    if (arrival[victim] - nowMs > toleranceMillis) {
+                        return false;
+                    }
+                    slot = victim;
+                    keyHi[slot] = hi;
+                    keyLo[slot] = lo;
+                    current = nowMs;
+                } else {
+                    current = Math.max(arrival[slot], nowMs);
+                }
+                if (current - nowMs > toleranceMillis) {
+                    return false;
+                }
+                arrival[slot] = current + intervalMillis;
+                return true;
+            }
+        }
+
+        /** Gives back the token the last successful {@link #tryAcquire} took for the key, if it is still held. */
+        void refund(long hi, long lo) {
+            int set = (int) PackedIp.hash(hi, lo) & setMask;
+            int base = set * WAYS;
+            synchronized (locks[set & (STRIPES - 1)]) {
+                for (int i = base; i < base + WAYS; i++) {
+                    if (arrival[i] != 0L && keyHi[i] == hi && keyLo[i] == lo) {
+                        arrival[i] -= intervalMillis;
+                        return;
+                    }
+                }
+            }
+        }
+
+        int active(long nowMs) {
+            int active = 0;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                synchronized (locks[stripe]) {
+                    for (int set = stripe; set <= setMask; set += STRIPES) {
+                        for (int i = set * WAYS; i < set * WAYS + WAYS; i++) {
+                            if (arrival[i] > nowMs) {
+                                active++;
+                            }
+                        }
+                    }
+                }
+            }
+            return active;
+        }
+    }
+}
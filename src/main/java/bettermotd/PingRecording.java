@@ -0,0 +1,88 @@
+package bettermotd;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * One JDK Flight Recorder recording at a time of {@link PingEvent}s and allocation samples, written to a file in the
+ * plugin folder when it is stopped or its duration ends. Nothing else is enabled, so a recording can run on a live
+ * server.
+ */
+final class PingRecording implements AutoCloseable {
+
+    static final int DEFAULT_SECONDS = 60;
+    static final int MAX_SECONDS = 3600;
+    /** Allocation samples per second; the JDK's default setting. */
+    private static final String ALLOCATION_THROTTLE = "150/s";
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT);
+
+    private final Path directory;
+    private Recording recording;
+    private Path file;
+
+    PingRecording(Path directory) {
+        this.directory = directory;
+    }
+
+    /** The file of the running recording, or null when none is running. */
+    synchronized Path running() {
+        return recording != null && recording.getState() == RecordingState.RUNNING ? file : null;
+    }
+
+    /** Starts recording for {@code duration}; returns the file it will be written to, or null if one is running. */
+    synchronized Path start(Duration duration) throws IOException {
+        if (running() != null) {
+            return null;
+        }
+        closeRecording();
+        Files.createDirectories(directory);
+        Path target = directory.resolve("bettermotd-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        Recording started = new Recording();
+        try {
+            started.setName("BetterMOTD pings");
+            started.enable(PingEvent.class);
+            started.enable("jdk.ObjectAllocationSample").with("throttle", ALLOCATION_THROTTLE);
+            started.setToDisk(true);
+            started.setDuration(duration);
+            started.setDestination(target);
+            started.start();
+        } catch (IOException | RuntimeException e) {
+            started.close();
+            throw e;
+        }
+        recording = started;
+        file = target;
+        return target;
+    }
+
+    /** Stops the running recording and writes it; returns its file, or null if none was running. */
+    synchronized Path stop() {
+        Path written = running();
+        if (written != null) {
+            recording.stop();
+        }
+        closeRecording();
+        return written;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bettermotd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Latency of each stage of ping handling for one profile, in {@link LatencyHistogram}s. Recording is lock-free and
+ * allocation-free, so it stays on in production. Like the rotate counter it survives profile switches and reloads.
+ */
+final class PingTimings {
+
+    enum Stage {
+        /** The whole ping, from the rate limit check to the icon. */
+        TOTAL,
+        /** Preset selection, including sticky lookups, or the response snapshot check. */
+        SELECTION,
+        PLAYER_COUNT,
+        RENDER,
+        /** Writing the MOTD and player counts to the event, through Paper's API or the legacy setters. */
+        APPLY,
+        ICON;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT).replace('_', ' ');
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private long lastPings;
+    private long lastStatsNanos;
+
+    PingTimings(long nowNanos) {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        this.lastStatsNanos = nowNanos;
+    }
+
+    void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * Percentiles of every stage that recorded anything, and the ping rate since the previous call (since creation
+     * for the first one).
+     */
+    synchronized Stats stats(long nowNanos) {
+        List<StageStats> stages = new ArrayList<>(STAGES.length);
+        long pings = 0L;
+        for (Stage stage : STAGES) {
+            long[] snapshot = histograms[stage.ordinal()].snapshot();
+            long count = LatencyHistogram.count(snapshot);
+            if (stage == Stage.TOTAL) {
+                pings = count;
+            }
+            if (count > 0) {
+                stages.add(new StageStats(
+                        stage,
+                        count,
+                        LatencyHistogram.percentile(snapshot, 0.50),
+                        LatencyHistogram.percentile(snapshot, 0.99),
+                        LatencyHistogram.percentile(snapshot, 0.999)));
+            }
+        }
+        long elapsedNanos = nowNanos - lastStatsNanos;
+        double rate = elapsedNanos > 0L ? (pings - lastPings) * 1_000_000_000.0 / elapsedNanos : 0.0;
+        lastPings = pings;
+        lastStatsNanos = nowNanos;
+        return new Stats(pings, rate, elapsedNanos / 1_000_000L, stages);
+    }
+
+    /** {@code ratePerSecond} covers the last {@code rateWindowMillis}. */
+    public record Stats(long pings, double ratePerSecond, long rateWindowMillis, List<StageStats> stages) {}
+
+    /** Percentiles are bucket upper bounds in nanoseconds, at most 12.5% above the recorded values. */
+    public record StageStats(Stage stage, long count, long p50Nanos, long p99Nanos, long p999Nanos) {}
+}
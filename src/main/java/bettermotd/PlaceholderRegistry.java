@@ -0,0 +1,230 @@
+package bettermotd;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * The MOTD placeholders and how often each value changes. Slot numbers are registration order, which is also the
+ * order tokens are matched in (see {@link PlaceholderTemplate#compile(String, String[])}).
+ *
+ * <ul>
+ *   <li>{@link Refresh#STATIC} values are computed for each frame at reload and baked into its compiled components.
+ *   <li>{@link Refresh#PERIODIC} values are recomputed by {@link #refresh(long)} on a background thread and published
+ *       as one array; pings read that array without locking.
+ *   <li>{@link Refresh#PER_PING} values are computed from the ping's player counts.
+ * </ul>
+ */
+final class PlaceholderRegistry {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final ZoneId SYSTEM_ZONE = ZoneId.systemDefault();
+    private static final long CLOCK_REFRESH_MILLIS = 1000L;
+
+    enum Refresh {
+        STATIC,
+        PERIODIC,
+        PER_PING
+    }
+
+    /** The frame STATIC values are computed for. */
+    record FrameContext(String profileId, String presetId, int frameIndex) {}
+
+    @FunctionalInterface
+    interface PerPingValue {
+        String value(PlayerCountService.PlayerCountResult counts, long nowMs);
+    }
+
+    private final String[] tokens;
+    private final Refresh[] refresh;
+    private final List<Function<FrameContext, String>> staticValues;
+    private final List<LongFunction<String>> periodicValues;
+    private final long[] periods;
+    private final List<PerPingValue> perPingValues;
+    /** Next refresh time per slot; only touched by the thread calling {@link #refresh(long)}. */
+    private final long[] nextRefresh;
+
+    private volatile String[] periodic;
+
+    private PlaceholderRegistry(Builder builder, long nowMs) {
+        int size = builder.tokens.size();
+        this.tokens = builder.tokens.toArray(new String[0]);
+        this.refresh = builder.refresh.toArray(new Refresh[0]);
+        this.staticValues = new ArrayList<>(builder.staticValues);
+        this.periodicValues = new ArrayList<>(builder.periodicValues);
+        this.periods = builder.periods.stream().mapToLong(Long::longValue).toArray();
+        this.perPingValues = new ArrayList<>(builder.perPingValues);
+        this.nextRefresh = new long[size];
+        this.periodic = new String[size];
+        refresh(nowMs);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /** The built-in placeholders; {@code startedAtMs} is what {@code %uptime%} counts from. */
+    static PlaceholderRegistry defaults(String version, long startedAtMs, long nowMs) {
+        return builder()
+                .perPing("%online%", (counts, now) -> playerCount(counts, counts.displayOnline()))
+                .perPing("%max%", (counts, now) -> playerCount(counts, counts.displayMax()))
+                .staticValue("%version%", frame -> version)
+                .staticValue("%preset%", FrameContext::presetId)
+                .staticValue("%profile%", FrameContext::profileId)
+                .staticValue("%motd_frame%", frame -> PlaceholderTemplate.intToString(frame.frameIndex()))
+                .periodic(
+                        "%time%",
+                        CLOCK_REFRESH_MILLIS, now -> LocalTime.ofInstant(Instant.ofEpochMilli(now), SYSTEM_ZONE)
+                                .format(TIME_FORMAT))
+                .periodic("%uptime%", CLOCK_REFRESH_MILLIS, now -> formatUptime(now - startedAtMs))
+                .build(nowMs);
+    }
+
+    /** Days and hours, hours and minutes, or minutes, e.g. {@code 2d 5h}, {@code 3h 12m}, {@code 7m}. */
+    static String formatUptime(long millis) {
+        long minutes = Math.max(0L, millis) / 60_000L;
+        long hours = minutes / 60;
+        long days = hours / 24;
+        if (days > 0) {
+            return days + "d " + hours % 24 + "h";
+        }
+        if (hours > 0) {
+            return hours + "h " + minutes % 60 + "m";
+        }
+        return minutes + "m";
+    }
+
+    private static String playerCount(PlayerCountService.PlayerCountResult counts, int value) {
+        return counts.hidePlayerCount() ? "???" : PlaceholderTemplate.intToString(value);
+    }
+
+    /** Tokens indexed by slot, for {@link PlaceholderTemplate#compile(String, String[])}. */
+    String[] tokens() {
+        return tokens.clone();
+    }
+
+    /** STATIC values for the frame; the other slots stay null so templates keep them as slots. */
+    String[] bound(FrameContext frame) {
+        String[] values = new String[tokens.length];
+        for (int slot = 0; slot < tokens.length; slot++) {
+            if (refresh[slot] == Refresh.STATIC) {
+                values[slot] = staticValues.get(slot).apply(frame);
+            }
+        }
+        return values;
+    }
+
+    /** The current PERIODIC values, indexed by slot. Replaced, never modified, when a value changes. */
+    String[] periodicSnapshot() {
+        return periodic;
+    }
+
+    /** Fills the PERIODIC and PER_PING slots {@code template} uses; the others stay null. */
+    String[] values(
+            PlaceholderTemplate template,
+            String[] periodicSnapshot,
+            PlayerCountService.PlayerCountResult counts,
+            long nowMs) {
+        String[] values = new String[tokens.length];
+        for (int slot = 0; slot < tokens.length; slot++) {
+            if (!template.uses(slot)) {
+                continue;
+            }
+            if (refresh[slot] == Refresh.PERIODIC) {
+                values[slot] = periodicSnapshot[slot];
+            } else if (refresh[slot] == Refresh.PER_PING) {
+                values[slot] = perPingValues.get(slot).value(counts, nowMs);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Recomputes PERIODIC values that are due and publishes them if any changed. Returns when the next one is due,
+     * or -1 when there are none; meant as a {@link FrameTicker} task.
+     */
+    long refresh(long nowMs) {
+        String[] current = periodic;
+        String[] next = null;
+        long earliest = Long.MAX_VALUE;
+        for (int slot = 0; slot < tokens.length; slot++) {
+            if (refresh[slot] != Refresh.PERIODIC) {
+                continue;
+            }
+            if (nowMs >= nextRefresh[slot]) {
+                String value = periodicValues.get(slot).apply(nowMs);
+                if (!Objects.equals(value, current[slot])) {
+                    if (next == null) {
+                        next = current.clone();
+                    }
+                    next[slot] = value;
+                }
+                nextRefresh[slot] = nowMs + periods[slot];
+            }
+            earliest = Math.min(earliest, nextRefresh[slot]);
+        }
+        if (next != null) {
+            periodic = next;
+        }
+        return earliest == Long.MAX_VALUE ? -1L : earliest;
+    }
+
+    static final class Builder {
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Refresh> refresh = new ArrayList<>();
+        private final List<Function<FrameContext, String>> staticValues = new ArrayList<>();
+        private final List<LongFunction<String>> periodicValues = new ArrayList<>();
+        private final List<Long> periods = new ArrayList<>();
+        private final List<PerPingValue> perPingValues = new ArrayList<>();
+
+        private Builder() {}
+
+        Builder staticValue(String token, Function<FrameContext, String> value) {
+            return add(token, Refresh.STATIC, value, null, 0L, null);
+        }
+
+        /** {@code value} gets the current epoch millis and is called at most once per {@code periodMillis}. */
+        Builder periodic(String token, long periodMillis, LongFunction<String> value) {
+            if (periodMillis <= 0) {
+                throw new IllegalArgumentException("periodMillis must be > 0");
+            }
+            return add(token, Refresh.PERIODIC, null, value, periodMillis, null);
+        }
+
+        Builder perPing(String token, PerPingValue value) {
+            return add(token, Refresh.PER_PING, null, null, 0L, value);
+        }
+
+        PlaceholderRegistry build(long nowMs) {
+            return new PlaceholderRegistry(this, nowMs);
+        }
+
+        private Builder add(
+                String token,
+                Refresh kind,
+                Function<FrameContext, String> staticValue,
+                LongFunction<String> periodicValue,
+                long period,
+                PerPingValue perPingValue) {
+            if (token == null || token.length() < 2 || token.charAt(0) != '%') {
+                throw new IllegalArgumentException("Invalid placeholder token: " + token);
+            }
+            if (tokens.contains(token)) {
+                throw new IllegalArgumentException("Duplicate placeholder token: " + token);
+            }
+            tokens.add(token);
+            refresh.add(kind);
+            staticValues.add(staticValue);
+            periodicValues.add(periodicValue);
+            periods.add(period);
+            perPingValues.add(perPingValue);
+            return this;
+        }
+    }
+}
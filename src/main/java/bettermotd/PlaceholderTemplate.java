@@ -0,0 +1,190 @@
+package bettermotd;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A MOTD frame compiled into literal segments and placeholder slots. Compiled once at reload; rendering only copies
+ * segments and slot values into a per-thread buffer.
+ */
+final class PlaceholderTemplate {
+
+    private static final int SMALL_INT_CACHE_SIZE = 1024;
+    private static final String[] SMALL_INTS = new String[SMALL_INT_CACHE_SIZE];
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final int MAX_RETAINED_BUFFER = 4096;
+    private static final int MAX_SLOTS = Long.SIZE;
+    /** Private-use characters standing in for slot {@code n} as {@code MARKER_BASE + n}. */
+    private static final char MARKER_BASE = '\uE000';
+
+    static {
+        for (int i = 0; i < SMALL_INT_CACHE_SIZE; i++) {
+            SMALL_INTS[i] = Integer.toString(i);
+        }
+    }
+
+    private final String raw;
+    private final String[] literals;
+    private final int[] slots;
+    private final long slotMask;
+    private final int literalLength;
+
+    private PlaceholderTemplate(String raw, String[] literals, int[] slots) {
+        this.raw = raw;
+        this.literals = literals;
+        this.slots = slots;
+        long mask = 0L;
+        for (int slot : slots) {
+            mask |= 1L << slot;
+        }
+        this.slotMask = mask;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles {@code raw} against {@code tokens}; slot numbers are indexes into {@code tokens}. At every '%' the
+     * first matching token wins, anything else stays literal text.
+     */
+    static PlaceholderTemplate compile(String raw, String[] tokens) {
+        if (tokens.length > MAX_SLOTS) {
+            throw new IllegalArgumentException("At most " + MAX_SLOTS + " placeholder tokens are supported.");
+        }
+        if (raw == null || raw.indexOf('%') < 0) {
+            return new PlaceholderTemplate(raw, new String[] {raw == null ? "" : raw}, new int[0]);
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int len = raw.length();
+        int literalStart = 0;
+        int i = 0;
+        while (i < len) {
+            if (raw.charAt(i) != '%') {
+                i++;
+                continue;
+            }
+            int slot = matchToken(raw, i, tokens);
+            if (slot < 0) {
+                i++;
+                continue;
+            }
+            literals.add(raw.substring(literalStart, i));
+            slots.add(slot);
+            i += tokens[slot].length();
+            literalStart = i;
+        }
+        literals.add(raw.substring(literalStart));
+
+        return new PlaceholderTemplate(raw, literals.toArray(new String[0]), toArray(slots));
+    }
+
+    /**
+     * Compiles text in which slots are marked with {@link #marker(int)} characters instead of tokens, e.g. the
+     * content of a component parsed from a marked frame.
+     */
+    static PlaceholderTemplate compileMarked(String marked) {
+        if (!containsMarker(marked)) {
+            return new PlaceholderTemplate(marked, new String[] {marked == null ? "" : marked}, new int[0]);
+        }
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int literalStart = 0;
+        for (int i = 0; i < marked.length(); i++) {
+            int slot = markerSlot(marked.charAt(i));
+            if (slot < 0) {
+                continue;
+            }
+            literals.add(marked.substring(literalStart, i));
+            slots.add(slot);
+            literalStart = i + 1;
+        }
+        literals.add(marked.substring(literalStart));
+        return new PlaceholderTemplate(marked, literals.toArray(new String[0]), toArray(slots));
+    }
+
+    static String marker(int slot) {
+        return String.valueOf((char) (MARKER_BASE + slot));
+    }
+
+    static int markerSlot(char c) {
+        int slot = c - MARKER_BASE;
+        return slot >= 0 && slot < MAX_SLOTS ? slot : -1;
+    }
+
+    static boolean containsMarker(String input) {
+        if (input == null) {
+            return false;
+        }
+        for (int i = 0; i < input.length(); i++) {
+            if (markerSlot(input.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String raw() {
+        return raw;
+    }
+
+    boolean hasPlaceholders() {
+        return slots.length > 0;
+    }
+
+    int slotCount() {
+        return slots.length;
+    }
+
+    boolean uses(int slot) {
+        return (slotMask & (1L << slot)) != 0;
+    }
+
+    /** Renders the template; {@code values} is indexed by slot and must hold every slot this template uses. */
+    String render(String[] values) {
+        if (slots.length == 0) {
+            return raw;
+        }
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        out.ensureCapacity(literalLength + slots.length * 8);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            out.append(values[slots[i]]);
+        }
+        out.append(literals[slots.length]);
+        String rendered = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    static String intToString(int value) {
+        if (value >= 0 && value < SMALL_INT_CACHE_SIZE) {
+            return SMALL_INTS[value];
+        }
+        return Integer.toString(value);
+    }
+
+    private static int[] toArray(List<Integer> slots) {
+        int[] array = new int[slots.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = slots.get(i);
+        }
+        return array;
+    }
+
+    private static int matchToken(String input, int index, String[] tokens) {
+        for (int t = 0; t < tokens.length; t++) {
+            String token = tokens[t];
+            if (input.regionMatches(index, token, 0, token.length())) {
+                return t;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,6 +1,5 @@
 package bettermotd;
 
-import java.util.Objects;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
@@ -8,6 +7,8 @@ import org.bukkit.event.server.ServerListPingEvent;
 
 public final class PlayerCountService {
 
+    private static final long FAKE_PLAYER_BUCKET_MILLIS = 60_000L;
+
     private final Logger logger;
     private final AtomicBoolean warnedOnlineUnsupported = new AtomicBoolean();
     private final AtomicBoolean warnedHidePlayers = new AtomicBoolean();
@@ -17,13 +18,14 @@ public final class PlayerCountService {
         this.logger = logger;
     }
 
-    public PlayerCountResult compute(Profile profile, String ip, int online, int max, long nowMs) {
+    /** {@code ipHash} is a {@link PackedIp#hash(long, long)} and only read when {@code hasIp} is true. */
+    public PlayerCountResult compute(Profile profile, boolean hasIp, long ipHash, int online, int max, long nowMs) {
         int safeOnline = Math.max(0, online);
         int safeMax = Math.max(0, max);
 
         Profile.PlayerCountSettings settings = profile.playerCount();
 
-        int fakeDelta = computeFakePlayers(profile, settings.fakePlayers(), ip, safeOnline, nowMs);
+        int fakeDelta = computeFakePlayers(profile, settings.fakePlayers(), hasIp, ipHash, safeOnline, nowMs);
         int displayOnline = safeOnline + fakeDelta;
 
         int displayMax = safeMax;
@@ -94,26 +96,31 @@ public final class PlayerCountService {
     }
 
     private int computeFakePlayers(
-            Profile profile, Profile.FakePlayersSettings fakePlayers, String ip, int online, long nowMs) {
+            Profile profile,
+            Profile.FakePlayersSettings fakePlayers,
+            boolean hasIp,
+            long ipHash,
+            int online,
+            long nowMs) {
         if (fakePlayers == null || !fakePlayers.enabled()) return 0;
 
         return switch (fakePlayers.mode()) {
             case STATIC -> Math.max(0, fakePlayers.min());
-            case RANDOM -> randomBetween(fakePlayers.min(), fakePlayers.max(), profile.selectionMode(), ip, nowMs);
+            case RANDOM -> randomBetween(
+                    fakePlayers.min(), fakePlayers.max(), profile.selectionMode(), hasIp, ipHash, nowMs);
             case PERCENT -> (int) Math.ceil(online * Math.max(0.0, fakePlayers.percent()) / 100.0);
         };
     }
 
-    private int randomBetween(int min, int max, ConfigModel.SelectionMode selectionMode, String ip, long nowMs) {
+    private int randomBetween(
+            int min, int max, ConfigModel.SelectionMode selectionMode, boolean hasIp, long ipHash, long nowMs) {
         int low = Math.max(0, Math.min(min, max));
         int high = Math.max(low, Math.max(min, max));
         if (low == high) return low;
 
-        if (selectionMode == ConfigModel.SelectionMode.STICKY_PER_IP && ip != null) {
-            long bucket = nowMs / 60000L; // 1-minute buckets for stability
-            long seed = Objects.hash(ip, bucket);
-            java.util.Random random = new java.util.Random(seed);
-            return random.nextInt(high - low + 1) + low;
+        if (selectionMode == ConfigModel.SelectionMode.STICKY_PER_IP && hasIp) {
+            long bucket = nowMs / FAKE_PLAYER_BUCKET_MILLIS; // 1-minute buckets for stability
+            return SplitMix.between(SplitMix.hash(ipHash, bucket), low, high);
         }
 
         return ThreadLocalRandom.current().nextInt(low, high + 1);
@@ -1,9 +1,32 @@
 package bettermotd;
 
 import java.util.List;
+import java.util.Objects;
+
+/** {@code iconFrames}, when not empty, replaces {@code icon} with an icon per animation frame. */
+public record Preset(
+        String id, int weight, String icon, List<String> motd, List<String> motdFrames, List<String> iconFrames) {
+    public Preset(String id, int weight, String icon, List<String> motd, List<String> motdFrames) {
+        this(id, weight, icon, motd, motdFrames, List.of());
+    }
 
-public record Preset(String id, int weight, String icon, List<String> motd, List<String> motdFrames) {
     public static Preset fallback(String iconPath) {
         return new Preset("default", 1, iconPath, ConfigModel.FALLBACK_MOTD_LINES, List.of());
     }
+
+    /**
+     * The index of the preset in {@code presets} with the id and MOTD text of {@code preset}, so its compiled frames
+     * can be reused; -1 if there is none. Weight and icons do not matter.
+     */
+    static int indexOfSameText(List<Preset> presets, Preset preset) {
+        for (int i = 0; i < presets.size(); i++) {
+            Preset other = presets.get(i);
+            if (other.id().equals(preset.id())
+                    && Objects.equals(other.motd(), preset.motd())
+                    && Objects.equals(other.motdFrames(), preset.motdFrames())) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
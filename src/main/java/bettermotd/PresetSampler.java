@@ -0,0 +1,107 @@
+package bettermotd;
+
+import java.util.List;
+
+/**
+ * Weighted preset picker compiled once per profile (Vose's alias method). Every pick is one hash, one division and
+ * two array reads, independent of how many presets the profile has. Weights below 1 count as 1.
+ */
+final class PresetSampler {
+
+    private final List<Preset> presetList;
+    private final Preset[] presets;
+    private final long totalWeight;
+    /** Per column: offsets below the threshold (out of {@code totalWeight}) keep the column, others take the alias. */
+    private final long[] threshold;
+
+    private final int[] alias;
+
+    private PresetSampler(Preset[] presets, long totalWeight, long[] threshold, int[] alias) {
+        this.presetList = List.of(presets);
+        this.presets = presets;
+        this.totalWeight = totalWeight;
+        this.threshold = threshold;
+        this.alias = alias;
+    }
+
+    static PresetSampler of(List<Preset> presets) {
+        if (presets == null || presets.isEmpty()) {
+            throw new IllegalArgumentException("At least one preset is required.");
+        }
+        int n = presets.size();
+        Preset[] table = presets.toArray(new Preset[0]);
+        long total = 0;
+        for (Preset preset : table) {
+            total += weight(preset);
+        }
+
+        // Scale each weight by n so that a column holds exactly totalWeight, then pair under-full columns with
+        // over-full ones until every column is full.
+        long[] scaled = new long[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weight(table[i]) * n;
+            if (scaled[i] < total) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        long[] threshold = new long[n];
+        int[] alias = new int[n];
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            threshold[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] -= total - scaled[s];
+            if (scaled[l] < total) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            threshold[l] = total;
+            alias[l] = l;
+        }
+        while (smallCount > 0) {
+            // Unreachable with exact integer weights; guards against leaving a column without an alias.
+            int s = small[--smallCount];
+            threshold[s] = total;
+            alias[s] = s;
+        }
+        return new PresetSampler(table, total, threshold, alias);
+    }
+
+    /** Picks a preset; equal seeds give equal picks. The seed does not need to be well distributed. */
+    Preset pick(long seed) {
+        return presets[pickIndex(seed)];
+    }
+
+    /** Like {@link #pick(long)}, returning the index into {@link #presets()}. */
+    int pickIndex(long seed) {
+        long span = totalWeight * presets.length;
+        long value = Long.remainderUnsigned(SplitMix.mix64(seed), span);
+        int column = (int) (value / totalWeight);
+        long offset = value - column * totalWeight;
+        return offset < threshold[column] ? column : alias[column];
+    }
+
+    long totalWeight() {
+        return totalWeight;
+    }
+
+    List<Preset> presets() {
+        return presetList;
+    }
+
+    private static long weight(Preset preset) {
+        return Math.max(1, preset.weight());
+    }
+}
@@ -7,7 +7,6 @@ public record Profile(
         ConfigModel.SelectionMode selectionMode,
         int stickyTtlSeconds,
         int stickyMaxEntriesPerProfile,
-        int stickyCleanupEveryNPings,
         AnimationSettings animation,
         PlayerCountSettings playerCount,
         List<Preset> presets) {
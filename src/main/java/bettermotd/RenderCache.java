@@ -0,0 +1,146 @@
+package bettermotd;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU of rendered placeholder frames, keyed by frame and the resolved placeholder values. Split into
+ * independently locked segments so concurrent pings rarely contend.
+ */
+public final class RenderCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 32;
+
+    private final int maxEntries;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RenderCache(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_ENTRIES_PER_SEGMENT <= this.maxEntries) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        int perSegment = (this.maxEntries + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    RenderedMotd get(Key key) {
+        if (!enabled()) {
+            return null;
+        }
+        Segment segment = segmentFor(key);
+        RenderedMotd result;
+        synchronized (segment) {
+            result = segment.entries.get(key);
+        }
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    void put(Key key, RenderedMotd result) {
+        if (!enabled() || result == null) {
+            return;
+        }
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.entries.put(key, result);
+            if (segment.entries.size() > segment.capacity) {
+                Iterator<Key> eldest = segment.entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    Stats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return new Stats(size, maxEntries, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class Segment {
+        private final int capacity;
+        private final Map<Key, RenderedMotd> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    /** Identifies one rendering: the frame plus the placeholder values it was rendered with. */
+    static final class Key {
+        private final String profileId;
+        private final String presetId;
+        private final int frameIndex;
+        private final String[] values;
+        private final int hash;
+
+        Key(String profileId, String presetId, int frameIndex, String[] values) {
+            this.profileId = profileId;
+            this.presetId = presetId;
+            this.frameIndex = frameIndex;
+            this.values = values;
+            int h = profileId.hashCode();
+            h = 31 * h + presetId.hashCode();
+            h = 31 * h + frameIndex;
+            this.hash = 31 * h + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            return other instanceof Key key
+                    && hash == key.hash
+                    && frameIndex == key.frameIndex
+                    && profileId.equals(key.profileId)
+                    && presetId.equals(key.presetId)
+                    && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public record Stats(int size, int maxSize, long hits, long misses, long evictions) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package bettermotd;
+
+/**
+ * A rendered MOTD and its legacy section-string form. The legacy string is only needed where Paper's component MOTD
+ * is unavailable, so it is serialized at most once per rendering and shared by every ping that reuses it.
+ */
+final class RenderedMotd {
+
+    private final TextFormatService.ParseResult parsed;
+    private volatile String legacy;
+
+    RenderedMotd(TextFormatService.ParseResult parsed) {
+        this.parsed = parsed;
+    }
+
+    /** For renderings that live until the next reload: serializes the legacy form up front. */
+    static RenderedMotd precomputed(TextFormatService.ParseResult parsed, TextFormatService formatter) {
+        RenderedMotd rendered = new RenderedMotd(parsed);
+        rendered.legacy = formatter.serializeToLegacy(parsed.component());
+        return rendered;
+    }
+
+    TextFormatService.ParseResult parsed() {
+        return parsed;
+    }
+
+    String legacy(TextFormatService formatter) {
+        String value = legacy;
+        if (value == null) {
+            // Racing threads serialize the same component to the same string; last write wins.
+            value = formatter.serializeToLegacy(parsed.component());
+            legacy = value;
+        }
+        return value;
+    }
+}
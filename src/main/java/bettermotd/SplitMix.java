@@ -0,0 +1,35 @@
+package bettermotd;
+
+/**
+ * Stateless SplitMix64-style hashing used wherever a pick has to be random-looking but repeatable, e.g. per IP and
+ * time bucket. Works on primitives only, so callers neither box nor allocate a {@link java.util.Random}.
+ */
+final class SplitMix {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private SplitMix() {}
+
+    /** The SplitMix64 finalizer: a bijection that spreads every input bit over the whole result. */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Hash of an ordered pair, e.g. an IP hash and a time bucket. */
+    static long hash(long a, long b) {
+        return mix64(mix64(a + GOLDEN_GAMMA) ^ b);
+    }
+
+    /** Maps {@code hash} onto {@code [0, bound)}; {@code bound} must be positive. */
+    static int nextInt(long hash, int bound) {
+        return (int) (((hash >>> 32) * bound) >>> 32);
+    }
+
+    /** Maps {@code hash} onto {@code [min, max]} (inclusive); {@code min} must not exceed {@code max}. */
+    static int between(long hash, int min, int max) {
+        long span = (long) max - min + 1;
+        return (int) (min + (((hash >>> 32) * span) >>> 32));
+    }
+}
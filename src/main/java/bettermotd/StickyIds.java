@@ -0,0 +1,47 @@
+package bettermotd;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers presets for sticky entries, which outlive reloads. A preset keeps its number while its id stays in the
+ * profile, so entries survive presets being added, removed or reordered; numbers of removed presets are not reused,
+ * and entries pointing at them are re-rolled on their next ping.
+ */
+record StickyIds(int[] byPreset, int[] presetById) {
+
+    /** Numbers {@code presets}, keeping the numbers {@code previous} gave to {@code previousPresets} by id. */
+    static StickyIds assign(List<Preset> presets, List<Preset> previousPresets, StickyIds previous) {
+        Map<String, Integer> known = new HashMap<>();
+        int next = 0;
+        if (previous != null) {
+            for (int i = 0; i < previousPresets.size(); i++) {
+                known.putIfAbsent(previousPresets.get(i).id(), previous.stickyId(i));
+            }
+            next = previous.presetById().length;
+        }
+        int[] byPreset = new int[presets.size()];
+        for (int i = 0; i < byPreset.length; i++) {
+            Integer id = known.remove(presets.get(i).id());
+            byPreset[i] = id != null ? id : next++;
+        }
+        int[] presetById = new int[next];
+        Arrays.fill(presetById, -1);
+        for (int i = 0; i < byPreset.length; i++) {
+            presetById[byPreset[i]] = i;
+        }
+        return new StickyIds(byPreset, presetById);
+    }
+
+    /** What sticky entries store for the preset at {@code presetIndex}. */
+    int stickyId(int presetIndex) {
+        return byPreset[presetIndex];
+    }
+
+    /** The index of the preset a sticky entry points at, or -1 when a reload removed it. */
+    int presetIndexOf(int stickyId) {
+        return stickyId >= 0 && stickyId < presetById.length ? presetById[stickyId] : -1;
+    }
+}
@@ -0,0 +1,249 @@
+package bettermotd;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sticky entries saved across restarts in a compact binary file, read back through a memory-mapped region. Per
+ * profile the file holds its id, the preset ids that entry preset numbers point at, and fixed-size entries (packed
+ * address, preset number, creation second, frame seed) sorted by creation time, so they can be restored in order
+ * without parsing or sorting.
+ */
+final class StickySnapshotFile {
+
+    static final int MAGIC = 0x424D5354; // "BMST"
+    static final int VERSION = 1;
+    static final int ENTRY_BYTES = 8 + 8 + 4 + 4 + 4;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private StickySnapshotFile() {}
+
+    /**
+     * Writes {@code sections} to a temporary file next to {@code file} and moves it into place, so a crash while
+     * saving leaves the previous file intact.
+     */
+    static void write(Path file, List<Section> sections) throws IOException {
+        long size = 4 + 4 + 4;
+        List<byte[]> profileIds = new ArrayList<>(sections.size());
+        List<byte[][]> presetIds = new ArrayList<>(sections.size());
+        for (Section section : sections) {
+            byte[] profileId = utf8(section.profileId());
+            byte[][] presets = new byte[section.presetIds().size()][];
+            size += 2 + profileId.length + 4 + 4 + (long) section.size() * ENTRY_BYTES;
+            for (int i = 0; i < presets.length; i++) {
+                String presetId = section.presetIds().get(i);
+                presets[i] = utf8(presetId != null ? presetId : "");
+                size += 2 + presets[i].length;
+            }
+            profileIds.add(profileId);
+            presetIds.add(presets);
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("too many sticky entries to save");
+        }
+        // Written from the heap rather than a mapping: an open mapping would block the rename on some platforms.
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(MAGIC).putInt(VERSION).putInt(sections.size());
+        for (int s = 0; s < sections.size(); s++) {
+            Section section = sections.get(s);
+            putString(out, profileIds.get(s));
+            out.putInt(presetIds.get(s).length);
+            for (byte[] presetId : presetIds.get(s)) {
+                putString(out, presetId);
+            }
+            out.putInt(section.size());
+            for (int i = 0; i < section.size(); i++) {
+                out.putLong(section.hi[i])
+                        .putLong(section.lo[i])
+                        .putInt(section.presets[i])
+                        .putInt(section.createdAt[i])
+                        .putInt(section.frameSeeds[i]);
+            }
+        }
+        out.flip();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+                temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Maps {@code file} and reads every section; throws when it is not a sticky file of this version. */
+    static List<Section> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 12 || in.getInt() != MAGIC) {
+                throw new IOException("not a BetterMOTD sticky file");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported sticky file version " + version);
+            }
+            int count = in.getInt();
+            List<Section> sections = new ArrayList<>(Math.max(0, Math.min(count, 64)));
+            for (int s = 0; s < count; s++) {
+                String profileId = getString(in);
+                int presetCount = checkedCount(in, in.getInt(), 2);
+                List<String> presetIds = new ArrayList<>(presetCount);
+                for (int i = 0; i < presetCount; i++) {
+                    presetIds.add(getString(in));
+                }
+                int size = checkedCount(in, in.getInt(), ENTRY_BYTES);
+                Section section = new Section(profileId, presetIds, size);
+                for (int i = 0; i < size; i++) {
+                    section.add(in.getLong(), in.getLong(), in.getInt(), in.getInt() & 0xFFFF_FFFFL, in.getInt());
+                }
+                sections.add(section);
+            }
+            return sections;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("sticky file is truncated", e);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_STRING_BYTES ? bytes : Arrays.copyOf(bytes, MAX_STRING_BYTES);
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Rejects counts that cannot fit in the rest of the file before anything is allocated for them. */
+    private static int checkedCount(ByteBuffer in, int count, int minBytesEach) throws IOException {
+        if (count < 0 || (long) count * minBytesEach > in.remaining()) {
+            throw new IOException("sticky file is corrupt");
+        }
+        return count;
+    }
+
+    /**
+     * The entries of one profile in parallel arrays. {@code presets} index {@code presetIds}; an empty preset id marks
+     * a number whose preset no longer exists.
+     */
+    static final class Section {
+        private final String profileId;
+        private final List<String> presetIds;
+        private long[] hi;
+        private long[] lo;
+        private int[] presets;
+        private int[] createdAt;
+        private int[] frameSeeds;
+        private int size;
+
+        Section(String profileId, List<String> presetIds, int expectedSize) {
+            this.profileId = profileId;
+            this.presetIds = presetIds;
+            int capacity = Math.max(16, expectedSize);
+            this.hi = new long[capacity];
+            this.lo = new long[capacity];
+            this.presets = new int[capacity];
+            this.createdAt = new int[capacity];
+            this.frameSeeds = new int[capacity];
+        }
+
+        String profileId() {
+            return profileId;
+        }
+
+        List<String> presetIds() {
+            return presetIds;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(long hi, long lo, int preset, long createdAtSeconds, int frameSeed) {
+            if (size == this.hi.length) {
+                int capacity = size * 2;
+                this.hi = Arrays.copyOf(this.hi, capacity);
+                this.lo = Arrays.copyOf(this.lo, capacity);
+                this.presets = Arrays.copyOf(presets, capacity);
+                this.createdAt = Arrays.copyOf(createdAt, capacity);
+                this.frameSeeds = Arrays.copyOf(frameSeeds, capacity);
+            }
+            this.hi[size] = hi;
+            this.lo[size] = lo;
+            this.presets[size] = preset;
+            this.createdAt[size] = (int) createdAtSeconds;
+            this.frameSeeds[size] = frameSeed;
+            size++;
+        }
+
+        /** Orders the entries by creation time, oldest first. */
+        void sortByCreation() {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                // Flipping the sign bit makes the signed sort order the unsigned creation seconds.
+                order[i] = (((createdAt[i] & 0xFFFF_FFFFL) << 32) | i) ^ Long.MIN_VALUE;
+            }
+            Arrays.sort(order);
+            long[] sortedHi = new long[size];
+            long[] sortedLo = new long[size];
+            int[] sortedPresets = new int[size];
+            int[] sortedCreated = new int[size];
+            int[] sortedSeeds = new int[size];
+            for (int i = 0; i < size; i++) {
+                int from = (int) order[i];
+                sortedHi[i] = hi[from];
+                sortedLo[i] = lo[from];
+                sortedPresets[i] = presets[from];
+                sortedCreated[i] = createdAt[from];
+                sortedSeeds[i] = frameSeeds[from];
+            }
+            hi = sortedHi;
+            lo = sortedLo;
+            presets = sortedPresets;
+            createdAt = sortedCreated;
+            frameSeeds = sortedSeeds;
+        }
+
+        long hi(int i) {
+            return hi[i];
+        }
+
+        long lo(int i) {
+            return lo[i];
+        }
+
+        int preset(int i) {
+            return presets[i];
+        }
+
+        long createdAtSeconds(int i) {
+            return createdAt[i] & 0xFFFF_FFFFL;
+        }
+
+        int frameSeed(int i) {
+            return frameSeeds[i];
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package bettermotd;
+
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Removes expired sticky entries on a daemon thread at a fixed interval, so pings only look up and insert. Each pass
+ * sizes its per-segment budget from the table: about twice the entries expected to expire per interval, and no limit
+ * once a bounded table is close to full, where every expired entry left behind makes admission evict live ones.
+ */
+final class StickySweeper implements AutoCloseable {
+
+    static final int MIN_BATCH = 64;
+    static final int MAX_BATCH = 1 << 16;
+
+    private final Supplier<? extends Collection<StickyTable>> tables;
+    private final long intervalMillis;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+
+    private volatile long sweeps;
+    private volatile long lastRemoved;
+    private volatile long lastDurationNanos;
+    private volatile long maxDurationNanos;
+
+    StickySweeper(Supplier<? extends Collection<StickyTable>> tables, long intervalMillis, Logger logger) {
+        this.tables = tables;
+        this.intervalMillis = intervalMillis;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BetterMOTD sticky sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void start() {
+        executor.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** Sweeps every table once; returns the number of removed entries. */
+    int sweep(long nowSeconds) {
+        long start = System.nanoTime();
+        int removed = 0;
+        for (StickyTable table : tables.get()) {
+            removed += table.removeExpired(nowSeconds, budget(table, table.size(), intervalMillis));
+        }
+        long duration = System.nanoTime() - start;
+        // Only the sweeper thread writes these.
+        sweeps = sweeps + 1;
+        lastRemoved = removed;
+        lastDurationNanos = duration;
+        maxDurationNanos = Math.max(maxDurationNanos, duration);
+        return removed;
+    }
+
+    Stats stats() {
+        return new Stats(intervalMillis, sweeps, lastRemoved, lastDurationNanos, maxDurationNanos);
+    }
+
+    /** Per-segment removal budget for one pass over {@code table}, which holds {@code size} entries. */
+    static int budget(StickyTable table, int size, long intervalMillis) {
+        int maxEntries = table.maxEntries();
+        if (maxEntries > 0 && (long) size * 10 >= (long) maxEntries * 9) {
+            return Integer.MAX_VALUE;
+        }
+        long expiring = (long) size * intervalMillis / (table.ttlSeconds() * 1000L);
+        long perSegment = expiring * 2 / table.segmentCount();
+        return (int) Math.max(MIN_BATCH, Math.min(MAX_BATCH, perSegment));
+    }
+
+    private void run() {
+        try {
+            sweep(System.currentTimeMillis() / 1000L);
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule; keep sweeping on the next tick.
+            logger.log(Level.WARNING, "Sticky sweep failed.", e);
+        }
+    }
+
+    public record Stats(
+            long intervalMillis, long sweeps, long lastRemoved, long lastDurationNanos, long maxDurationNanos) {}
+}
@@ -0,0 +1,480 @@
+package bettermotd;
+
+/**
+ * Sticky preset assignments of one profile, keyed by {@link PackedIp} addresses. Entries are stored in primitive
+ * arrays (open addressing with linear probing) split into independently locked segments, so an entry costs a few
+ * dozen bytes and lookups allocate nothing.
+ *
+ * <p>Lookups return the entry packed into a long ({@link #presetIndex(long)}, {@link #frameSeed(long)}) or
+ * {@link #MISSING}.
+ *
+ * <p>All entries share one TTL, so each segment's creation-ordered list doubles as its expiry queue: a sweep pops
+ * expired entries from the old end and stops at the first live one, touching nothing else.
+ *
+ * <p>New addresses go through TinyLFU admission ({@link FrequencySketch}): an address seen for the first time is not
+ * stored, so one-shot scanners never take a slot. Once a segment holds its share of {@code maxEntries}, a newcomer
+ * only replaces the least recently used entry if it has been seen more often.
+ */
+public final class StickyTable {
+
+    static final long MISSING = -1L;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+    /** Sketch size per segment of an unbounded table. */
+    private static final int UNBOUNDED_SKETCH_ENTRIES = 4096;
+
+    private final Segment[] segments;
+    private final int maxEntries;
+    private final long ttlSeconds;
+
+    /** {@code maxEntries <= 0} means unbounded. */
+    StickyTable(int maxEntries, long ttlSeconds) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlSeconds = ttlSeconds;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS
+                && (maxEntries <= 0 || segmentCount * 2 * MIN_ENTRIES_PER_SEGMENT <= maxEntries)) {
+            segmentCount *= 2;
+        }
+        int perSegment = maxEntries <= 0 ? Integer.MAX_VALUE : (maxEntries + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment, Math.min(perSegment, UNBOUNDED_SKETCH_ENTRIES));
+        }
+    }
+
+    static int presetIndex(long entry) {
+        return (int) entry;
+    }
+
+    static int frameSeed(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    /** Returns the live entry for the address; an expired entry is removed instead. */
+    long get(long hi, long lo, long nowSeconds) {
+        long hash = PackedIp.hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(hash, hi, lo);
+            if (slot >= 0 && segment.isExpired(slot, nowSeconds, ttlSeconds)) {
+                segment.remove(slot);
+                slot = -1;
+            }
+            if (slot < 0) {
+                segment.misses++;
+                return MISSING;
+            }
+            segment.hits++;
+            segment.sketch.increment(hash);
+            segment.touch(slot);
+            return segment.entry(slot);
+        }
+    }
+
+    /**
+     * Stores a fresh entry created at {@code nowSeconds}, replacing any previous one. Returns the entry, or
+     * {@link #MISSING} when a new address is not admitted.
+     */
+    long put(long hi, long lo, int presetIndex, long nowSeconds, int frameSeed) {
+        long hash = PackedIp.hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            if (!segment.store(hash, hi, lo, presetIndex, nowSeconds, frameSeed, ttlSeconds)) {
+                return MISSING;
+            }
+            return pack(presetIndex, frameSeed);
+        }
+    }
+
+    /**
+     * Points the address at another preset. A live entry keeps its creation time and frame seed and, like every other
+     * write, becomes the most recently used; otherwise a fresh entry is stored with {@code frameSeed}, subject to
+     * admission like {@link #put}.
+     */
+    long updatePreset(long hi, long lo, int presetIndex, long nowSeconds, int frameSeed) {
+        long hash = PackedIp.hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(hash, hi, lo);
+            if (slot >= 0 && !segment.isExpired(slot, nowSeconds, ttlSeconds)) {
+                segment.presets[slot] = presetIndex;
+                segment.touch(slot);
+                return segment.entry(slot);
+            }
+            if (!segment.store(hash, hi, lo, presetIndex, nowSeconds, frameSeed, ttlSeconds)) {
+                return MISSING;
+            }
+            return pack(presetIndex, frameSeed);
+        }
+    }
+
+    /**
+     * Removes expired entries, oldest first and at most {@code maxPerSegment} per segment, then shrinks segments that
+     * have become mostly empty. Returns the number of removed entries.
+     */
+    int removeExpired(long nowSeconds, int maxPerSegment) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                int segmentRemoved = 0;
+                while (segment.heads[Segment.EXPIRY] != Segment.NONE
+                        && segmentRemoved < maxPerSegment
+                        && segment.isExpired(segment.heads[Segment.EXPIRY], nowSeconds, ttlSeconds)) {
+                    segment.remove(segment.heads[Segment.EXPIRY]);
+                    segmentRemoved++;
+                }
+                segment.shrinkIfSparse();
+                removed += segmentRemoved;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Stores an entry saved earlier with its original creation time, without admission. Entries must be restored in
+     * creation order so the expiry queues stay sorted. Returns false when the address is already present or its
+     * segment is full.
+     */
+    boolean restore(long hi, long lo, int presetIndex, long createdAtSeconds, int frameSeed) {
+        long hash = PackedIp.hash(hi, lo);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            return segment.restore(hash, hi, lo, presetIndex, createdAtSeconds, frameSeed);
+        }
+    }
+
+    /** Passes every entry to {@code visitor}, one segment at a time while holding its lock. */
+    void forEach(EntryVisitor visitor) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                int slot = segment.heads[Segment.EXPIRY];
+                while (slot != Segment.NONE) {
+                    visitor.visit(
+                            segment.keyHi[slot],
+                            segment.keyLo[slot],
+                            segment.presets[slot],
+                            segment.createdAt[slot] & 0xFFFF_FFFFL,
+                            segment.frameSeeds[slot]);
+                    slot = segment.links[slot * 4 + 1];
+                }
+            }
+        }
+    }
+
+    /** The entry limit, 0 when unbounded. */
+    int maxEntries() {
+        return maxEntries;
+    }
+
+    long ttlSeconds() {
+        return ttlSeconds;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    Stats stats() {
+        int size = 0;
+        long hits = 0;
+        long misses = 0;
+        long rejected = 0;
+        long evicted = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+                hits += segment.hits;
+                misses += segment.misses;
+                rejected += segment.rejected;
+                evicted += segment.evicted;
+            }
+        }
+        return new Stats(size, hits, misses, rejected, evicted);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 32) & (segments.length - 1)];
+    }
+
+    private static long pack(int presetIndex, int frameSeed) {
+        return ((long) frameSeed << 32) | (presetIndex & 0xFFFF_FFFFL);
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(long hi, long lo, int presetIndex, long createdAtSeconds, int frameSeed);
+    }
+
+    /**
+     * Lookup and admission counters. {@code admissionRejects} counts new addresses that were not stored,
+     * {@code evictions} live entries replaced by more frequent newcomers.
+     */
+    public record Stats(int size, long hits, long misses, long admissionRejects, long evictions) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * One lock stripe. Slots are parallel arrays; removed slots become tombstones so indexes stay stable until the
+     * next rehash. Live slots are on two intrusive lists in {@code links}: by creation time ({@link #EXPIRY}) and by
+     * last access ({@link #LRU}), oldest at the head of each.
+     */
+    private static final class Segment {
+        static final byte FREE = 0;
+        static final byte USED = 1;
+        static final byte DELETED = 2;
+        static final int NONE = -1;
+        static final int EXPIRY = 0;
+        static final int LRU = 1;
+
+        final int maxEntries;
+        final FrequencySketch sketch;
+        byte[] states;
+        long[] keyHi;
+        long[] keyLo;
+        int[] presets;
+        int[] frameSeeds;
+        /** Creation time in epoch seconds, stored unsigned. */
+        int[] createdAt;
+        /** Per slot: expiry prev/next, then LRU prev/next. */
+        int[] links;
+
+        final int[] heads = new int[2];
+        final int[] tails = new int[2];
+        int size;
+        int tombstones;
+        long hits;
+        long misses;
+        long rejected;
+        long evicted;
+
+        Segment(int maxEntries, int sketchEntries) {
+            this.maxEntries = maxEntries;
+            this.sketch = new FrequencySketch(sketchEntries);
+            reset(INITIAL_SEGMENT_CAPACITY);
+        }
+
+        void reset(int capacity) {
+            states = new byte[capacity];
+            keyHi = new long[capacity];
+            keyLo = new long[capacity];
+            presets = new int[capacity];
+            frameSeeds = new int[capacity];
+            createdAt = new int[capacity];
+            links = new int[capacity * 4];
+            heads[EXPIRY] = NONE;
+            heads[LRU] = NONE;
+            tails[EXPIRY] = NONE;
+            tails[LRU] = NONE;
+            size = 0;
+            tombstones = 0;
+        }
+
+        int find(long hash, long hi, long lo) {
+            int mask = states.length - 1;
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                byte state = states[slot];
+                if (state == FREE) {
+                    return -1;
+                }
+                if (state == USED && keyHi[slot] == hi && keyLo[slot] == lo) {
+                    return slot;
+                }
+            }
+        }
+
+        /** Returns false when a new address is not admitted. */
+        boolean store(long hash, long hi, long lo, int presetIndex, long nowSeconds, int frameSeed, long ttlSeconds) {
+            int slot = find(hash, hi, lo);
+            if (slot < 0) {
+                if (!admit(hash, nowSeconds, ttlSeconds)) {
+                    rejected++;
+                    return false;
+                }
+                if (size + tombstones + 1 > states.length * 3 / 4) {
+                    rehash(size + 1 > states.length / 2 ? states.length * 2 : states.length);
+                }
+                slot = insertSlot(hash);
+                if (states[slot] == DELETED) {
+                    tombstones--;
+                }
+                states[slot] = USED;
+                keyHi[slot] = hi;
+                keyLo[slot] = lo;
+                size++;
+            } else {
+                unlink(EXPIRY, slot);
+                unlink(LRU, slot);
+            }
+            link(EXPIRY, slot);
+            link(LRU, slot);
+            presets[slot] = presetIndex;
+            frameSeeds[slot] = frameSeed;
+            createdAt[slot] = (int) nowSeconds;
+            return true;
+        }
+
+        /** Appends a saved entry; the address counts as seen once, like an admitted one. */
+        boolean restore(long hash, long hi, long lo, int presetIndex, long createdAtSeconds, int frameSeed) {
+            if (size >= maxEntries || find(hash, hi, lo) >= 0) {
+                return false;
+            }
+            if (size + tombstones + 1 > states.length * 3 / 4) {
+                rehash(size + 1 > states.length / 2 ? states.length * 2 : states.length);
+            }
+            int slot = insertSlot(hash);
+            if (states[slot] == DELETED) {
+                tombstones--;
+            }
+            states[slot] = USED;
+            keyHi[slot] = hi;
+            keyLo[slot] = lo;
+            presets[slot] = presetIndex;
+            frameSeeds[slot] = frameSeed;
+            createdAt[slot] = (int) createdAtSeconds;
+            link(EXPIRY, slot);
+            link(LRU, slot);
+            size++;
+            sketch.increment(hash);
+            return true;
+        }
+
+        /** Records the sighting of a new address and makes room for it if it is admitted. */
+        private boolean admit(long hash, long nowSeconds, long ttlSeconds) {
+            if (!sketch.increment(hash)) {
+                return false;
+            }
+            if (size < maxEntries) {
+                return true;
+            }
+            int oldest = heads[EXPIRY];
+            if (isExpired(oldest, nowSeconds, ttlSeconds)) {
+                remove(oldest);
+                return true;
+            }
+            int victim = heads[LRU];
+            if (sketch.frequency(hash) <= sketch.frequency(PackedIp.hash(keyHi[victim], keyLo[victim]))) {
+                return false;
+            }
+            remove(victim);
+            evicted++;
+            return true;
+        }
+
+        boolean isExpired(int slot, long nowSeconds, long ttlSeconds) {
+            return nowSeconds - (createdAt[slot] & 0xFFFF_FFFFL) > ttlSeconds;
+        }
+
+        long entry(int slot) {
+            return pack(presets[slot], frameSeeds[slot]);
+        }
+
+        void touch(int slot) {
+            if (tails[LRU] != slot) {
+                unlink(LRU, slot);
+                link(LRU, slot);
+            }
+        }
+
+        void remove(int slot) {
+            unlink(EXPIRY, slot);
+            unlink(LRU, slot);
+            states[slot] = DELETED;
+            size--;
+            tombstones++;
+        }
+
+        /** Lets memory follow the number of active pingers back down after a burst. */
+        void shrinkIfSparse() {
+            if (states.length > INITIAL_SEGMENT_CAPACITY && size * 8 < states.length) {
+                rehash(Math.max(INITIAL_SEGMENT_CAPACITY, Integer.highestOneBit(Math.max(1, size)) * 4));
+            }
+        }
+
+        private int insertSlot(long hash) {
+            int mask = states.length - 1;
+            int slot = (int) hash & mask;
+            while (states[slot] == USED) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void link(int list, int slot) {
+            int base = list * 2;
+            int tail = tails[list];
+            links[slot * 4 + base] = tail;
+            links[slot * 4 + base + 1] = NONE;
+            if (tail == NONE) {
+                heads[list] = slot;
+            } else {
+                links[tail * 4 + base + 1] = slot;
+            }
+            tails[list] = slot;
+        }
+
+        private void unlink(int list, int slot) {
+            int base = list * 2;
+            int before = links[slot * 4 + base];
+            int after = links[slot * 4 + base + 1];
+            if (before == NONE) {
+                heads[list] = after;
+            } else {
+                links[before * 4 + base + 1] = after;
+            }
+            if (after == NONE) {
+                tails[list] = before;
+            } else {
+                links[after * 4 + base] = before;
+            }
+        }
+
+        /** Re-inserts live entries, which drops tombstones and keeps both list orders. */
+        private void rehash(int capacity) {
+            byte[] oldStates = states;
+            long[] oldHi = keyHi;
+            long[] oldLo = keyLo;
+            int[] oldPresets = presets;
+            int[] oldSeeds = frameSeeds;
+            int[] oldCreated = createdAt;
+            int[] oldLinks = links;
+            int[] moved = new int[oldStates.length];
+            int expiryHead = heads[EXPIRY];
+            int lruHead = heads[LRU];
+            reset(capacity);
+            for (int slot = expiryHead; slot != NONE; slot = oldLinks[slot * 4 + 1]) {
+                if (oldStates[slot] != USED) {
+                    continue;
+                }
+                int target = insertSlot(PackedIp.hash(oldHi[slot], oldLo[slot]));
+                states[target] = USED;
+                keyHi[target] = oldHi[slot];
+                keyLo[target] = oldLo[slot];
+                presets[target] = oldPresets[slot];
+                frameSeeds[target] = oldSeeds[slot];
+                createdAt[target] = oldCreated[slot];
+                link(EXPIRY, target);
+                moved[slot] = target;
+                size++;
+            }
+            for (int slot = lruHead; slot != NONE; slot = oldLinks[slot * 4 + 3]) {
+                link(LRU, moved[slot]);
+            }
+        }
+    }
+}
@@ -92,7 +92,7 @@ public final class TextFormatService {
         return buffer.toString();
     }
 
-    private ParseResult parseSingleLine(String input, ColorFormat format) {
+    ParseResult parseSingleLine(String input, ColorFormat format) {
         ColorFormat resolved = resolveFormat(input, format);
         try {
             Component component =
@@ -110,7 +110,7 @@ public final class TextFormatService {
         }
     }
 
-    private ColorFormat resolveFormat(String input, ColorFormat format) {
+    ColorFormat resolveFormat(String input, ColorFormat format) {
         if (format == null || format == ColorFormat.AUTO || format == ColorFormat.AUTO_STRICT) {
             return detectFormat(input, format == ColorFormat.AUTO_STRICT);
         }
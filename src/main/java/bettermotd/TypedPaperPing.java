@@ -0,0 +1,53 @@
+package bettermotd;
+
+import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
+import net.kyori.adventure.text.Component;
+import org.bukkit.event.server.ServerListPingEvent;
+
+/**
+ * Direct calls on {@link PaperServerListPingEvent}. Only instantiated by {@link PaperPingAdapter} once the running
+ * server is known to have every method used here, so Spigot and older Paper builds never link against it.
+ */
+final class TypedPaperPing implements PaperPingAdapter.Access {
+
+    static boolean supports(Class<?> paperClass) {
+        try {
+            paperClass.getMethod("motd", Component.class);
+            paperClass.getMethod("setNumPlayers", int.class);
+            paperClass.getMethod("setHidePlayers", boolean.class);
+            paperClass.getMethod("getListedPlayers");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isPaperEvent(ServerListPingEvent event) {
+        return event instanceof PaperServerListPingEvent;
+    }
+
+    @Override
+    public boolean motd(ServerListPingEvent event, Component component) {
+        event.motd(component);
+        return true;
+    }
+
+    @Override
+    public boolean setNumPlayers(ServerListPingEvent event, int online) {
+        ((PaperServerListPingEvent) event).setNumPlayers(online);
+        return true;
+    }
+
+    @Override
+    public boolean setHidePlayers(ServerListPingEvent event, boolean hide) {
+        ((PaperServerListPingEvent) event).setHidePlayers(hide);
+        return true;
+    }
+
+    @Override
+    public boolean clearPlayerSample(ServerListPingEvent event) {
+        ((PaperServerListPingEvent) event).getListedPlayers().clear();
+        return true;
+    }
+}
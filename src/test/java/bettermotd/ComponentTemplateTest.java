@@ -0,0 +1,74 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ComponentTemplateTest {
+
+    private static final String[] TOKENS = {"%online%", "%max%", "%preset%"};
+
+    private final TextFormatService formatter = new TextFormatService();
+
+    @Test
+    void slotSubstitutionMatchesFullParse() {
+        assertRendersLikeFullParse(
+                "<gradient:#7CFFB2:#2ED1FF><bold>BETTERMOTD</bold></gradient>\n"
+                        + "<gray>Online <white>%online%</white>/<white>%max%</white> on %preset%</gray>",
+                ColorFormat.AUTO);
+    }
+
+    @Test
+    void gradientLineWithPlaceholderMatchesFullParse() {
+        assertRendersLikeFullParse(
+                "<gray>Static first line</gray>\n<gradient:#FF0000:#0000FF>%online% online</gradient>",
+                ColorFormat.AUTO);
+    }
+
+    @Test
+    void legacyCodesAroundPlaceholdersMatchFullParse() {
+        assertRendersLikeFullParse("&aOnline: &f%online%\n&7Max %max%", ColorFormat.AUTO);
+        assertRendersLikeFullParse("&%online% players\n&#00D4%max%", ColorFormat.AUTO);
+    }
+
+    @Test
+    void boundOnlyFrameIsStatic() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("<gray>Preset %preset%</gray>\n", TOKENS);
+
+        ComponentTemplate compiled = ComponentTemplate.compile(template, bound(), ColorFormat.MINI_MESSAGE, formatter);
+
+        assertTrue(compiled.isStatic());
+        assertSame(compiled.staticResult(), compiled.render(new String[TOKENS.length]));
+        assertEquals(
+                formatter.parseToComponentDetailed("<gray>Preset aurora</gray>\n", ColorFormat.MINI_MESSAGE),
+                compiled.staticResult());
+    }
+
+    @Test
+    void dynamicFrameIsNotStatic() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("%online%\n", TOKENS);
+
+        assertFalse(ComponentTemplate.compile(template, bound(), ColorFormat.AUTO, formatter)
+                .isStatic());
+    }
+
+    private void assertRendersLikeFullParse(String raw, ColorFormat format) {
+        PlaceholderTemplate template = PlaceholderTemplate.compile(raw, TOKENS);
+        ComponentTemplate compiled = ComponentTemplate.compile(template, bound(), format, formatter);
+
+        for (String[] values : new String[][] {{"0", "100", "aurora"}, {"12", "???", "aurora"}}) {
+            TextFormatService.ParseResult expected =
+                    formatter.parseToComponentDetailed(template.render(values), format);
+            TextFormatService.ParseResult actual = compiled.render(values);
+            assertEquals(expected.component(), actual.component(), raw);
+            assertEquals(expected.usedFormat(), actual.usedFormat(), raw);
+        }
+    }
+
+    private static String[] bound() {
+        return new String[] {null, null, "aurora"};
+    }
+}
@@ -0,0 +1,77 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+class FrameTickerTest {
+
+    private static final Logger LOGGER = Logger.getLogger("FrameTickerTest");
+
+    @Test
+    void runsAtTheTimesTheTaskPicksUntilItGoesIdle() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+        try (FrameTicker ticker = new FrameTicker(
+                "test ticker",
+                now -> {
+                    done.countDown();
+                    return runs.incrementAndGet() < 3 ? now + 20 : -1L;
+                },
+                LOGGER)) {
+            ticker.wake();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals(3, runs.get());
+
+            runs.set(10);
+            ticker.wake();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (runs.get() == 10 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(11, runs.get());
+        }
+    }
+
+    @Test
+    void failingTaskIsRetriedAndWakeUpsAreCoalesced() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (FrameTicker ticker = new FrameTicker(
+                "test ticker",
+                now -> {
+                    if (runs.incrementAndGet() == 1) {
+                        blocked.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new IllegalStateException("boom");
+                    }
+                    return -1L;
+                },
+                LOGGER)) {
+            ticker.wake();
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 10; i++) {
+                ticker.wake();
+            }
+            release.countDown();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (runs.get() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            // The ten wake-ups ran once, replacing the retry scheduled after the failure.
+            assertEquals(2, runs.get());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.junit.jupiter.api.Test;
+
+class IconImagesTest {
+
+    @Test
+    void keepsIconsThatAreAlready64x64() throws IOException {
+        BufferedImage image = IconImages.decodeFrames(png(64, 64, 0xFF336699)).get(0);
+
+        assertSame(image, IconImages.normalize(image));
+    }
+
+    @Test
+    void scalesOtherSizesTo64x64() throws IOException {
+        BufferedImage image = IconImages.decodeFrames(png(128, 32, 0xFF336699)).get(0);
+        BufferedImage normalized = IconImages.normalize(image);
+
+        assertEquals(64, normalized.getWidth());
+        assertEquals(64, normalized.getHeight());
+        assertEquals(0xFF336699, normalized.getRGB(32, 32));
+    }
+
+    @Test
+    void rejectsFilesThatAreNotUsableImages() throws IOException {
+        assertThrows(IOException.class, () -> IconImages.decodeFrames(new byte[0]));
+        assertThrows(IOException.class, () -> IconImages.decodeFrames("not an image".getBytes()));
+        int tooLarge = IconImages.MAX_SOURCE_SIZE + 1;
+        assertThrows(IOException.class, () -> IconImages.decodeFrames(png(tooLarge, 1, 0xFF000000)));
+    }
+
+    @Test
+    void splitsAnimatedGifsIntoFrames() throws IOException {
+        List<BufferedImage> frames = IconImages.decodeFrames(gif(0xFFFF0000, 0xFF00FF00, 0xFF0000FF));
+
+        assertEquals(3, frames.size());
+        assertEquals(0xFFFF0000, frames.get(0).getRGB(10, 10));
+        assertEquals(0xFF00FF00, frames.get(1).getRGB(10, 10));
+        assertEquals(0xFF0000FF, frames.get(2).getRGB(10, 10));
+    }
+
+    @Test
+    void hashesByContent() throws IOException {
+        byte[] first = png(64, 64, 0xFF336699);
+        byte[] same = png(64, 64, 0xFF336699);
+        byte[] other = png(64, 64, 0xFF996633);
+
+        assertEquals(IconImages.hash(first), IconImages.hash(same));
+        assertNotEquals(IconImages.hash(first), IconImages.hash(other));
+        assertEquals(64, IconImages.hash(first).length());
+    }
+
+    private static byte[] png(int width, int height, int argb) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(filled(width, height, argb), "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] gif(int... colors) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            for (int color : colors) {
+                writer.writeToSequence(new IIOImage(filled(64, 64, color), null, null), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage filled(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,62 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bukkit.util.CachedServerIcon;
+import org.junit.jupiter.api.Test;
+
+class IconLruTest {
+
+    private static final long FRAME_BYTES = IconImages.SIZE * IconImages.SIZE * 4;
+
+    @Test
+    void evictsLeastRecentlyUsedUnpinnedFiles() {
+        IconLru lru = new IconLru(2, 0L);
+        lru.reset(entries(1, "icons/a.png", "icons/b.png"));
+        lru.touch(List.of("icons/a.png"));
+
+        lru.added(entries(1, "icons/c.png"));
+
+        assertEquals(List.of("icons/b.png"), lru.evict(Set.of("icons/c.png")));
+        assertEquals(2, lru.stats().size());
+        assertEquals(1, lru.stats().loads());
+        assertEquals(1, lru.stats().evictions());
+    }
+
+    @Test
+    void keepsPinnedFilesOverTheLimit() {
+        IconLru lru = new IconLru(1, 0L);
+        lru.reset(entries(1, "icons/a.png", "icons/b.png"));
+
+        assertEquals(List.of(), lru.evict(Set.of("icons/a.png", "icons/b.png")));
+        assertEquals(List.of("icons/a.png"), lru.evict(Set.of("icons/b.png")));
+    }
+
+    @Test
+    void boundsDecodedBytes() {
+        IconLru lru = new IconLru(100, FRAME_BYTES * 4);
+        lru.reset(entries(2, "icons/a.gif"));
+        lru.added(entries(2, "icons/b.gif"));
+        assertEquals(List.of(), lru.evict(Set.of()));
+
+        lru.added(entries(1, "icons/c.png"));
+
+        assertEquals(List.of("icons/a.gif"), lru.evict(Set.of()));
+        assertEquals(FRAME_BYTES * 3, lru.stats().bytes());
+    }
+
+    private static Map<String, IconCache.Entry> entries(int frames, String... paths) {
+        // Only the frame count matters for sizing.
+        List<CachedServerIcon> icons = Collections.nCopies(frames, null);
+        Map<String, IconCache.Entry> entries = new HashMap<>();
+        for (String path : paths) {
+            entries.put(path, new IconCache.Entry(path, icons));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,47 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IconWatcherTest {
+
+    private static final Logger LOGGER = Logger.getLogger("IconWatcherTest");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reportsChangedIconFilesOnly() throws Exception {
+        BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+        try (IconWatcher watcher = IconWatcher.start(directory, 200L, changes::add, LOGGER)) {
+            assertEquals(directory, watcher.directory());
+            for (int i = 0; i < 3; i++) {
+                Files.write(directory.resolve("aurora.png"), new byte[] {(byte) i});
+                Thread.sleep(20);
+            }
+            Files.writeString(directory.resolve("notes.txt"), "not an icon");
+            Files.write(directory.resolve("Ember.PNG"), new byte[] {1});
+
+            // How writes are grouped into reports depends on the platform's watch service (polling ones see them
+            // late), so only what was reported is checked.
+            Set<String> reported = new HashSet<>();
+            while (!reported.contains("Ember.PNG") || !reported.contains("aurora.png")) {
+                Set<String> batch = changes.poll(10, TimeUnit.SECONDS);
+                assertNotNull(batch, "reported so far: " + reported);
+                reported.addAll(batch);
+            }
+            assertEquals(Set.of("aurora.png", "Ember.PNG"), reported);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverValuesContiguouslyWithBoundedError() {
+        for (long value = 0; value < 1_000_000; value++) {
+            int bucket = LatencyHistogram.bucket(value);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue(upper >= value, "value " + value);
+            assertTrue(upper - value <= value / 8, "value " + value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBound(bucket - 1) < value, "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void clampsOutOfRangeValues() {
+        assertEquals(0, LatencyHistogram.bucket(-5L));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket((1L << 40) - 1));
+    }
+
+    @Test
+    void percentilesFollowRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long[] snapshot = histogram.snapshot();
+
+        assertEquals(1000, LatencyHistogram.count(snapshot));
+        assertWithin(500_000L, LatencyHistogram.percentile(snapshot, 0.50));
+        assertWithin(990_000L, LatencyHistogram.percentile(snapshot, 0.99));
+        assertWithin(999_000L, LatencyHistogram.percentile(snapshot, 0.999));
+        assertEquals(0L, LatencyHistogram.percentile(new LatencyHistogram().snapshot(), 0.5));
+    }
+
+    @Test
+    void countsEveryRecordFromConcurrentThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, LatencyHistogram.count(histogram.snapshot()));
+    }
+
+    @Test
+    void pingTimingsReportStagesThatRecorded() {
+        PingTimings timings = new PingTimings(0L);
+        timings.record(PingTimings.Stage.TOTAL, 4_000L);
+        timings.record(PingTimings.Stage.TOTAL, 4_000L);
+        timings.record(PingTimings.Stage.RENDER, 1_000L);
+
+        PingTimings.Stats stats = timings.stats(1_000_000_000L);
+
+        assertEquals(2, stats.pings());
+        assertEquals(2.0, stats.ratePerSecond(), 1e-9);
+        assertEquals(
+                List.of(PingTimings.Stage.TOTAL, PingTimings.Stage.RENDER),
+                stats.stages().stream().map(PingTimings.StageStats::stage).toList());
+        assertEquals(0.0, timings.stats(2_000_000_000L).ratePerSecond(), 1e-9);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 8, expected + " vs " + actual);
+    }
+}
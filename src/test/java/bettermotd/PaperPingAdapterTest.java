@@ -0,0 +1,78 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
+import com.destroystokyo.paper.network.StatusClient;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.logging.Logger;
+import org.bukkit.event.server.ServerListPingEvent;
+import org.junit.jupiter.api.Test;
+
+class PaperPingAdapterTest {
+
+    private static final Logger LOGGER = Logger.getLogger("PaperPingAdapterTest");
+
+    @Test
+    void typedPathAppliesPaperSettings() throws Exception {
+        PaperPingAdapter adapter = new PaperPingAdapter(LOGGER);
+        assertTrue(adapter.isTyped());
+
+        assertAppliesPaperSettings(adapter);
+    }
+
+    @Test
+    void methodHandlePathAppliesPaperSettings() throws Exception {
+        PaperPingAdapter adapter = PaperPingAdapter.withMethodHandles(LOGGER);
+        assertFalse(adapter.isTyped());
+
+        PaperServerListPingEvent event = paperEvent();
+        assertTrue(adapter.applyOnlinePlayers(event, 42));
+        assertTrue(adapter.applyHidePlayers(event, true));
+        assertEquals(42, event.getNumPlayers());
+        assertTrue(event.shouldHidePlayers());
+    }
+
+    @Test
+    void bukkitEventsAreLeftToTheCaller() throws Exception {
+        PaperPingAdapter adapter = new PaperPingAdapter(LOGGER);
+        ServerListPingEvent event = new ServerListPingEvent("", InetAddress.getLoopbackAddress(), null, 3, 20);
+
+        assertFalse(adapter.isPaperEvent(event));
+        assertFalse(adapter.applyOnlinePlayers(event, 42));
+        assertFalse(adapter.applyHidePlayers(event, true));
+        assertEquals(3, event.getNumPlayers());
+    }
+
+    private static void assertAppliesPaperSettings(PaperPingAdapter adapter) throws Exception {
+        PaperServerListPingEvent event = paperEvent();
+
+        assertTrue(adapter.isPaperEvent(event));
+        assertTrue(adapter.applyOnlinePlayers(event, -5));
+        assertEquals(0, event.getNumPlayers());
+        assertTrue(adapter.applyOnlinePlayers(event, 42));
+        assertEquals(42, event.getNumPlayers());
+        assertTrue(adapter.applyHidePlayers(event, true));
+        assertTrue(event.shouldHidePlayers());
+        assertTrue(adapter.applyDisableHover(event));
+        assertTrue(event.getListedPlayers().isEmpty());
+    }
+
+    private static PaperServerListPingEvent paperEvent() throws Exception {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getByName("192.0.2.1"), 40000);
+        StatusClient client = (StatusClient) Proxy.newProxyInstance(
+                StatusClient.class.getClassLoader(),
+                new Class<?>[] {StatusClient.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getAddress" -> address;
+                    case "getVirtualHost" -> new InetSocketAddress("play.example.net", 25565);
+                    case "getProtocolVersion" -> 774;
+                    default -> null;
+                });
+        return new PaperServerListPingEvent(client, null, 3, 20, "1.21.11", 774, null);
+    }
+}
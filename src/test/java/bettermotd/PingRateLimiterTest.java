@@ -0,0 +1,122 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import org.junit.jupiter.api.Test;
+
+class PingRateLimiterTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        PingRateLimiter limiter = new PingRateLimiter(new ConfigModel.RateLimitSettings(true, 3, 2.0, 100, 100.0));
+        long lo = ipv4(10, 0, 0, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(0L, lo, NOW));
+        }
+        assertFalse(limiter.tryAcquire(0L, lo, NOW));
+        assertFalse(limiter.tryAcquire(0L, lo, NOW + 499));
+        assertTrue(limiter.tryAcquire(0L, lo, NOW + 500));
+        assertFalse(limiter.tryAcquire(0L, lo, NOW + 500));
+        // Idle long enough to be full again.
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(0L, lo, NOW + 10_000));
+        }
+
+        assertEquals(3, limiter.stats(NOW + 10_000).throttledByIp());
+    }
+
+    @Test
+    void prefixBucketLimitsNeighbouringAddresses() {
+        PingRateLimiter limiter = new PingRateLimiter(new ConfigModel.RateLimitSettings(true, 2, 1.0, 5, 1.0));
+
+        int allowed = 0;
+        for (int host = 0; host < 20; host++) {
+            if (limiter.tryAcquire(0L, ipv4(192, 0, 2, host), NOW)) {
+                allowed++;
+            }
+        }
+        assertEquals(5, allowed);
+        assertTrue(limiter.tryAcquire(0L, ipv4(192, 0, 3, 1), NOW));
+
+        PingRateLimiter.Stats stats = limiter.stats(NOW);
+        assertEquals(15, stats.throttledByPrefix());
+        assertEquals(0, stats.throttledByIp());
+        assertEquals(2, stats.activePrefixes());
+    }
+
+    @Test
+    void groupsIpv4By24AndIpv6By48() throws Exception {
+        InetAddress v4 = InetAddress.getByName("198.51.100.77");
+        InetAddress v6 = InetAddress.getByName("2001:db8:abcd:12::1");
+
+        assertEquals(0L, PingRateLimiter.prefixHi(PackedIp.hi(v4), PackedIp.lo(v4)));
+        assertEquals(0xFFFF_C633_6400L, PingRateLimiter.prefixLo(PackedIp.hi(v4), PackedIp.lo(v4)));
+        assertEquals(0x2001_0DB8_ABCD_0000L, PingRateLimiter.prefixHi(PackedIp.hi(v6), PackedIp.lo(v6)));
+        assertEquals(0L, PingRateLimiter.prefixLo(PackedIp.hi(v6), PackedIp.lo(v6)));
+    }
+
+    @Test
+    void addressFloodStaysWithinFixedTables() {
+        PingRateLimiter limiter =
+                new PingRateLimiter(new ConfigModel.RateLimitSettings(true, 1, 1.0, 1_000_000, 1000.0));
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire(0L, 0xFFFF_0000_0000L | i, NOW);
+        }
+
+        assertTrue(limiter.stats(NOW).activeIps() <= 8192);
+        assertEquals(0, limiter.stats(NOW + 1_000).activeIps());
+    }
+
+    @Test
+    void prefixRejectionRefundsTheAddressToken() {
+        PingRateLimiter limiter = new PingRateLimiter(new ConfigModel.RateLimitSettings(true, 2, 1.0, 1, 1.0));
+        long lo = ipv4(10, 0, 0, 1);
+
+        assertTrue(limiter.tryAcquire(0L, lo, NOW));
+        for (int i = 0; i < 4; i++) {
+            assertFalse(limiter.tryAcquire(0L, lo, NOW));
+        }
+        assertTrue(limiter.tryAcquire(0L, lo, NOW + 1_000));
+
+        PingRateLimiter.Stats stats = limiter.stats(NOW + 1_000);
+        assertEquals(4, stats.throttledByPrefix());
+        assertEquals(0, stats.throttledByIp());
+    }
+
+    @Test
+    void throttledBucketIsNotEvictedByNewcomer() {
+        PingRateLimiter limiter =
+                new PingRateLimiter(new ConfigModel.RateLimitSettings(true, 1, 1.0, 1_000_000, 1000.0));
+        int setMask = PingRateLimiter.TABLE_ENTRIES / PingRateLimiter.WAYS - 1;
+        long[] sameSet = new long[PingRateLimiter.WAYS + 1];
+        int found = 0;
+        for (long i = 0; found < sameSet.length; i++) {
+            long lo = 0xFFFF_0000_0000L | i;
+            if (((int) PackedIp.hash(0L, lo) & setMask) == 0) {
+                sameSet[found++] = lo;
+            }
+        }
+
+        for (int i = 0; i < PingRateLimiter.WAYS; i++) {
+            assertTrue(limiter.tryAcquire(0L, sameSet[i], NOW));
+            assertFalse(limiter.tryAcquire(0L, sameSet[i], NOW));
+        }
+        long newcomer = sameSet[PingRateLimiter.WAYS];
+
+        assertFalse(limiter.tryAcquire(0L, newcomer, NOW));
+        for (int i = 0; i < PingRateLimiter.WAYS; i++) {
+            assertFalse(limiter.tryAcquire(0L, sameSet[i], NOW + 500));
+        }
+        assertTrue(limiter.tryAcquire(0L, newcomer, NOW + 1_000));
+    }
+
+    private static long ipv4(int a, int b, int c, int d) {
+        return 0xFFFF_0000_0000L | ((long) a << 24) | (b << 16) | (c << 8) | d;
+    }
+}
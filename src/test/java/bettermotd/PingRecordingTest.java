@@ -0,0 +1,59 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PingRecordingTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsPingEventsOnlyWhileRunning() throws Exception {
+        assertFalse(PingEvent.enabled());
+        try (PingRecording recording = new PingRecording(directory)) {
+            Path file = recording.start(Duration.ofMinutes(1));
+            assertNotNull(file);
+            assertEquals(directory, file.getParent());
+            assertNull(recording.start(Duration.ofMinutes(1)));
+            assertTrue(PingEvent.enabled());
+
+            PingEvent event = new PingEvent();
+            event.begin();
+            event.profile = "default";
+            event.preset = "a";
+            event.selectionMode = "RANDOM";
+            event.cacheHit = true;
+            event.commit();
+
+            assertEquals(file, recording.stop());
+            assertNull(recording.running());
+            assertFalse(PingEvent.enabled());
+
+            List<RecordedEvent> pings = RecordingFile.readAllEvents(file).stream()
+                    .filter(recorded -> recorded.getEventType().getName().equals("bettermotd.Ping"))
+                    .toList();
+            assertEquals(1, pings.size());
+            assertEquals("default", pings.get(0).getString("profile"));
+            assertTrue(pings.get(0).getBoolean("cacheHit"));
+        }
+    }
+
+    @Test
+    void stopWithoutRecordingReturnsNull() {
+        try (PingRecording recording = new PingRecording(directory)) {
+            assertNull(recording.stop());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PlaceholderRegistryTest {
+
+    private static final PlayerCountService.PlayerCountResult COUNTS =
+            new PlayerCountService.PlayerCountResult(10, 100, 12, 100, 2, false, false);
+
+    @Test
+    void fillsEachKindFromItsSource() {
+        AtomicInteger periodicCalls = new AtomicInteger();
+        PlaceholderRegistry registry = PlaceholderRegistry.builder()
+                .perPing("%online%", (counts, now) -> PlaceholderTemplate.intToString(counts.displayOnline()))
+                .staticValue("%preset%", PlaceholderRegistry.FrameContext::presetId)
+                .periodic(
+                        "%tick%",
+                        1000L, now -> {
+                            periodicCalls.incrementAndGet();
+                            return Long.toString(now / 1000L);
+                        })
+                .build(5_000L);
+        PlaceholderTemplate template = PlaceholderTemplate.compile("%online% %preset% %tick%", registry.tokens());
+
+        assertArrayEquals(
+                new String[] {null, "aurora", null},
+                registry.bound(new PlaceholderRegistry.FrameContext("default", "aurora", 0)));
+        String[] values = registry.values(template, registry.periodicSnapshot(), COUNTS, 5_500L);
+        assertArrayEquals(new String[] {"12", null, "5"}, values);
+        assertEquals(1, periodicCalls.get());
+    }
+
+    @Test
+    void periodicValuesArePublishedOnlyWhenTheyChange() {
+        PlaceholderRegistry registry = PlaceholderRegistry.builder()
+                .periodic("%minute%", 1000L, now -> Long.toString(now / 60_000L))
+                .periodic("%second%", 250L, now -> Long.toString(now / 1000L))
+                .build(0L);
+        String[] initial = registry.periodicSnapshot();
+
+        assertEquals(250L, registry.refresh(100L));
+        assertSame(initial, registry.periodicSnapshot());
+
+        assertEquals(1000L, registry.refresh(999L));
+        assertSame(initial, registry.periodicSnapshot());
+
+        assertEquals(1499L, registry.refresh(1249L));
+        String[] next = registry.periodicSnapshot();
+        assertNotSame(initial, next);
+        assertEquals("0", next[0]);
+        assertEquals("1", next[1]);
+        assertEquals("0", initial[1]);
+    }
+
+    @Test
+    void registryWithoutPeriodicValuesNeedsNoTicks() {
+        PlaceholderRegistry registry = PlaceholderRegistry.builder()
+                .perPing("%max%", (counts, now) -> "x")
+                .build(0L);
+
+        assertEquals(-1L, registry.refresh(1_000L));
+        assertNull(registry.periodicSnapshot()[0]);
+    }
+
+    @Test
+    void defaultsKeepTheBuiltInTokensAndHideCounts() {
+        PlaceholderRegistry registry = PlaceholderRegistry.defaults("1.21.11", 0L, 3_600_000L);
+        PlaceholderTemplate template = PlaceholderTemplate.compile("%online%/%max% up %uptime%", registry.tokens());
+        PlayerCountService.PlayerCountResult hidden =
+                new PlayerCountService.PlayerCountResult(10, 100, 10, 100, 0, true, false);
+
+        assertEquals(
+                "???/??? up 1h 0m",
+                template.render(registry.values(template, registry.periodicSnapshot(), hidden, 3_600_000L)));
+        assertEquals("1.21.11", registry.bound(new PlaceholderRegistry.FrameContext("p", "q", 3))[2]);
+        assertEquals("3", registry.bound(new PlaceholderRegistry.FrameContext("p", "q", 3))[5]);
+    }
+
+    @Test
+    void formatsUptime() {
+        assertEquals("0m", PlaceholderRegistry.formatUptime(59_999L));
+        assertEquals("7m", PlaceholderRegistry.formatUptime(7 * 60_000L));
+        assertEquals("3h 12m", PlaceholderRegistry.formatUptime((3 * 60 + 12) * 60_000L));
+        assertEquals("2d 5h", PlaceholderRegistry.formatUptime(((2 * 24 + 5) * 60 + 30) * 60_000L));
+    }
+}
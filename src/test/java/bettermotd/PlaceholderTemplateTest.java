@@ -0,0 +1,54 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PlaceholderTemplateTest {
+
+    private static final String[] TOKENS = {"%online%", "%max%", "%time%"};
+    private static final String[] VALUES = {"12", "100", "18:30"};
+
+    @Test
+    void rendersLiteralsAndSlotsInOrder() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("<gray>%online%/%max%</gray> at %time%", TOKENS);
+
+        assertTrue(template.hasPlaceholders());
+        assertEquals("<gray>12/100</gray> at 18:30", template.render(VALUES));
+    }
+
+    @Test
+    void keepsUnknownTokensAndStrayPercentSigns() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("50% %unknown% %%online%%", TOKENS);
+
+        assertEquals("50% %unknown% %12%", template.render(VALUES));
+        assertTrue(template.uses(0));
+        assertFalse(template.uses(1));
+    }
+
+    @Test
+    void adjacentTokensShareNoPercentSign() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("%max%online%", TOKENS);
+
+        assertEquals("100online%", template.render(VALUES));
+    }
+
+    @Test
+    void templateWithoutPlaceholdersReturnsRawInstance() {
+        String raw = "Static line\nSecond line";
+        PlaceholderTemplate template = PlaceholderTemplate.compile(raw, TOKENS);
+
+        assertFalse(template.hasPlaceholders());
+        assertSame(raw, template.render(VALUES));
+    }
+
+    @Test
+    void smallIntsComeFromSharedTable() {
+        assertSame(PlaceholderTemplate.intToString(42), PlaceholderTemplate.intToString(42));
+        assertEquals("123456", PlaceholderTemplate.intToString(123456));
+        assertEquals("-1", PlaceholderTemplate.intToString(-1));
+    }
+}
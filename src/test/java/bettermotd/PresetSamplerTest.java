@@ -0,0 +1,59 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PresetSamplerTest {
+
+    @Test
+    void picksInProportionToWeights() {
+        List<Preset> presets = List.of(preset("a", 1), preset("b", 3), preset("c", 6), preset("d", 0));
+        PresetSampler sampler = PresetSampler.of(presets);
+        int picks = 200_000;
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int seed = 0; seed < picks; seed++) {
+            counts.merge(sampler.pick(seed).id(), 1, Integer::sum);
+        }
+
+        assertEquals(11, sampler.totalWeight());
+        assertShare(counts.get("a"), picks, 1.0 / 11);
+        assertShare(counts.get("b"), picks, 3.0 / 11);
+        assertShare(counts.get("c"), picks, 6.0 / 11);
+        assertShare(counts.get("d"), picks, 1.0 / 11);
+    }
+
+    @Test
+    void equalSeedsGiveEqualPicks() {
+        PresetSampler sampler = PresetSampler.of(List.of(preset("a", 5), preset("b", 7), preset("c", 11)));
+
+        for (long seed = -50; seed < 50; seed++) {
+            assertSame(sampler.pick(seed), sampler.pick(seed));
+        }
+    }
+
+    @Test
+    void singlePresetIsAlwaysPicked() {
+        Preset only = preset("only", 42);
+        PresetSampler sampler = PresetSampler.of(List.of(only));
+
+        for (long seed = Long.MIN_VALUE; seed < Long.MIN_VALUE + 100; seed++) {
+            assertSame(only, sampler.pick(seed));
+        }
+    }
+
+    private static void assertShare(int count, int total, double expected) {
+        double share = (double) count / total;
+        assertTrue(Math.abs(share - expected) < 0.01, "share " + share + " expected " + expected);
+    }
+
+    private static Preset preset(String id, int weight) {
+        return new Preset(id, weight, null, List.of(id), List.of());
+    }
+}
@@ -0,0 +1,33 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PresetTest {
+
+    private static final List<Preset> PRESETS = List.of(
+            new Preset("a", 1, "icons/a.png", List.of("A"), List.of()),
+            new Preset("b", 2, null, List.of(), List.of("B1", "B2")));
+
+    @Test
+    void findsPresetWithSameIdAndText() {
+        assertEquals(0, Preset.indexOfSameText(PRESETS, new Preset("a", 1, "icons/a.png", List.of("A"), List.of())));
+        assertEquals(1, Preset.indexOfSameText(PRESETS, new Preset("b", 2, null, List.of(), List.of("B1", "B2"))));
+    }
+
+    @Test
+    void weightAndIconDoNotMatter() {
+        Preset reweighted = new Preset("a", 9, "icons/other.png", List.of("A"), List.of());
+        assertEquals(0, Preset.indexOfSameText(PRESETS, reweighted));
+    }
+
+    @Test
+    void changedTextOrIdIsNotReused() {
+        assertEquals(-1, Preset.indexOfSameText(PRESETS, new Preset("a", 1, "icons/a.png", List.of("A!"), List.of())));
+        assertEquals(-1, Preset.indexOfSameText(PRESETS, new Preset("b", 2, null, List.of(), List.of("B1"))));
+        assertEquals(-1, Preset.indexOfSameText(PRESETS, new Preset("b", 2, null, List.of("B1"), List.of("B1", "B2"))));
+        assertEquals(-1, Preset.indexOfSameText(PRESETS, new Preset("c", 1, "icons/a.png", List.of("A"), List.of())));
+    }
+}
@@ -0,0 +1,61 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+class RenderCacheTest {
+
+    @Test
+    void returnsEntriesForEqualValues() {
+        RenderCache cache = new RenderCache(8);
+        RenderedMotd result = result("12");
+
+        cache.put(key(0, "12"), result);
+
+        assertSame(result, cache.get(key(0, "12")));
+        assertNull(cache.get(key(1, "12")));
+        assertNull(cache.get(key(0, "13")));
+        RenderCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        RenderCache cache = new RenderCache(2);
+        RenderedMotd first = result("1");
+        cache.put(key(0, "1"), first);
+        cache.put(key(0, "2"), result("2"));
+        cache.get(key(0, "1"));
+
+        cache.put(key(0, "3"), result("3"));
+
+        assertNull(cache.get(key(0, "2")));
+        assertSame(first, cache.get(key(0, "1")));
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    void zeroSizeDisablesCaching() {
+        RenderCache cache = new RenderCache(0);
+        cache.put(key(0, "1"), result("1"));
+
+        assertNull(cache.get(key(0, "1")));
+        assertEquals(0, cache.stats().size());
+        assertEquals(0, cache.stats().misses());
+    }
+
+    private static RenderCache.Key key(int frameIndex, String online) {
+        return new RenderCache.Key("default", "aurora", frameIndex, new String[] {online, "100"});
+    }
+
+    private static RenderedMotd result(String text) {
+        return new RenderedMotd(
+                new TextFormatService.ParseResult(Component.text(text), ColorFormat.MINI_MESSAGE, false));
+    }
+}
@@ -0,0 +1,83 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+
+class SplitMixTest {
+
+    @Test
+    void betweenCoversRangeUniformly() {
+        int min = 5;
+        int max = 14;
+        int[] counts = new int[max - min + 1];
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            int value = SplitMix.between(SplitMix.hash("203.0.113.7".hashCode(), i), min, max);
+            assertTrue(value >= min && value <= max, "out of range: " + value);
+            counts[value - min]++;
+        }
+
+        // Chi-squared with 9 degrees of freedom; 27.9 is the 0.1% critical value.
+        double expected = (double) samples / counts.length;
+        double chiSquared = 0;
+        for (int count : counts) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        assertTrue(chiSquared < 27.9, "chi-squared " + chiSquared);
+    }
+
+    @Test
+    void nearbyIpsSpreadOverBuckets() {
+        int[] counts = new int[8];
+        for (int host = 0; host < 256; host++) {
+            counts[SplitMix.nextInt(SplitMix.mix64(("10.0.0." + host).hashCode()), counts.length)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 16 && count < 48, "bucket count " + count);
+        }
+    }
+
+    @Test
+    void hashIsDeterministicPerIpAndBucket() {
+        long ip = "198.51.100.23".hashCode();
+
+        assertEquals(SplitMix.hash(ip, 42), SplitMix.hash(ip, 42));
+        assertNotEquals(SplitMix.hash(ip, 42), SplitMix.hash(ip, 43));
+        assertNotEquals(SplitMix.hash(ip, 42), SplitMix.hash(42, ip));
+    }
+
+    @Test
+    void fullIntRangeDoesNotOverflow() {
+        for (long i = 0; i < 1000; i++) {
+            int value = SplitMix.between(SplitMix.mix64(i), 0, Integer.MAX_VALUE);
+            assertTrue(value >= 0, "negative: " + value);
+        }
+        assertEquals(7, SplitMix.between(-1L, 7, 7));
+    }
+
+    @Test
+    void picksDoNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        long thread = Thread.currentThread().threadId();
+        long sink = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sink += SplitMix.between(SplitMix.hash(i, i >>> 3), 0, 100);
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            sink += SplitMix.between(SplitMix.hash(i, i >>> 3), 0, 100);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(sink >= 0);
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,89 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StickyIdsTest {
+
+    @Test
+    void numbersPresetsInOrderWithoutPreviousProfile() {
+        StickyIds ids = StickyIds.assign(presets("a", "b", "c"), List.of(), null);
+
+        assertArrayEquals(new int[] {0, 1, 2}, ids.byPreset());
+        assertEquals(1, ids.presetIndexOf(1));
+    }
+
+    @Test
+    void reorderedPresetsKeepTheirNumbers() {
+        List<Preset> before = presets("a", "b", "c");
+        StickyIds first = StickyIds.assign(before, List.of(), null);
+
+        List<Preset> after = presets("c", "a", "b");
+        StickyIds second = StickyIds.assign(after, before, first);
+
+        assertArrayEquals(new int[] {2, 0, 1}, second.byPreset());
+        assertEquals(1, second.presetIndexOf(0));
+        assertEquals(2, second.presetIndexOf(1));
+        assertEquals(0, second.presetIndexOf(2));
+    }
+
+    @Test
+    void removedPresetsResolveToMinusOne() {
+        List<Preset> before = presets("a", "b", "c");
+        StickyIds first = StickyIds.assign(before, List.of(), null);
+
+        StickyIds second = StickyIds.assign(presets("a", "c"), before, first);
+
+        assertArrayEquals(new int[] {0, 2}, second.byPreset());
+        assertEquals(-1, second.presetIndexOf(1));
+        assertEquals(1, second.presetIndexOf(2));
+        assertEquals(-1, second.presetIndexOf(3));
+        assertEquals(-1, second.presetIndexOf(-1));
+    }
+
+    @Test
+    void addedPresetsGetNumbersThatWereNeverUsed() {
+        List<Preset> before = presets("a", "b", "c");
+        StickyIds first = StickyIds.assign(before, List.of(), null);
+        List<Preset> removed = presets("a", "c");
+        StickyIds second = StickyIds.assign(removed, before, first);
+
+        // "b" comes back as a new preset: its old number stays retired and it gets a fresh one.
+        List<Preset> added = presets("d", "a", "b", "c");
+        StickyIds third = StickyIds.assign(added, removed, second);
+
+        assertArrayEquals(new int[] {3, 0, 4, 2}, third.byPreset());
+        assertEquals(-1, third.presetIndexOf(1));
+        assertEquals(0, third.presetIndexOf(3));
+        assertEquals(2, third.presetIndexOf(4));
+    }
+
+    @Test
+    void numbersSurviveManyReloadsWithoutReuse() {
+        List<Preset> presets = presets("a");
+        StickyIds ids = StickyIds.assign(presets, List.of(), null);
+        List<Integer> seen = new ArrayList<>();
+        for (int reload = 0; reload < 5; reload++) {
+            List<Preset> next = presets("a", "tmp" + reload);
+            ids = StickyIds.assign(next, presets, ids);
+            presets = next;
+            assertEquals(0, ids.stickyId(0));
+            int number = ids.stickyId(1);
+            assertFalse(seen.contains(number), "number " + number + " reused");
+            seen.add(number);
+        }
+    }
+
+    private static List<Preset> presets(String... ids) {
+        List<Preset> presets = new ArrayList<>();
+        for (String id : ids) {
+            presets.add(new Preset(id, 1, null, List.of(id), List.of()));
+        }
+        return presets;
+    }
+}
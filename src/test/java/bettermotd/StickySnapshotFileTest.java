@@ -0,0 +1,60 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StickySnapshotFileTest {
+
+    @Test
+    void roundTripsSectionsSortedByCreation() throws IOException {
+        Path file = Files.createTempDirectory("bettermotd-sticky").resolve("sticky.bin");
+        StickySnapshotFile.Section section =
+                new StickySnapshotFile.Section("default", Arrays.asList("aurora", null, "ember"), 0);
+        section.add(0L, 2L, 2, 1_700_000_005L, -3);
+        section.add(-1L, 1L, 0, 1_700_000_001L, 7);
+        section.add(0L, 3L, 1, 3_000_000_000L, 0);
+        section.sortByCreation();
+        StickySnapshotFile.Section empty = new StickySnapshotFile.Section("événement", List.of(), 0);
+
+        StickySnapshotFile.write(file, List.of(section, empty));
+        List<StickySnapshotFile.Section> read = StickySnapshotFile.read(file);
+
+        assertEquals(2, read.size());
+        StickySnapshotFile.Section restored = read.get(0);
+        assertEquals("default", restored.profileId());
+        assertEquals(List.of("aurora", "", "ember"), restored.presetIds());
+        assertEquals(3, restored.size());
+        assertEquals(-1L, restored.hi(0));
+        assertEquals(1L, restored.lo(0));
+        assertEquals(0, restored.preset(0));
+        assertEquals(1_700_000_001L, restored.createdAtSeconds(0));
+        assertEquals(7, restored.frameSeed(0));
+        assertEquals(2L, restored.lo(1));
+        assertEquals(-3, restored.frameSeed(1));
+        assertEquals(3_000_000_000L, restored.createdAtSeconds(2));
+        assertEquals("événement", read.get(1).profileId());
+        assertEquals(0, read.get(1).size());
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedFiles() throws IOException {
+        Path directory = Files.createTempDirectory("bettermotd-sticky");
+        Path foreign = Files.writeString(directory.resolve("foreign.bin"), "activeProfile: default");
+        assertThrows(IOException.class, () -> StickySnapshotFile.read(foreign));
+
+        Path file = directory.resolve("sticky.bin");
+        StickySnapshotFile.Section section = new StickySnapshotFile.Section("default", List.of("aurora"), 0);
+        section.add(0L, 1L, 0, 1_700_000_000L, 0);
+        StickySnapshotFile.write(file, List.of(section));
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = Files.write(directory.resolve("truncated.bin"), Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> StickySnapshotFile.read(truncated));
+    }
+}
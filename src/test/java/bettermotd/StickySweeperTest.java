@@ -0,0 +1,72 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+class StickySweeperTest {
+
+    private static final Logger LOGGER = Logger.getLogger("StickySweeperTest");
+
+    @Test
+    void sweepsEveryTableAndRecordsDuration() {
+        StickyTable first = new StickyTable(0, 10);
+        StickyTable second = new StickyTable(0, 10);
+        for (int i = 0; i < 300; i++) {
+            admit(first, i, 1000L);
+            admit(second, i, i < 100 ? 1000L : 1015L);
+        }
+
+        try (StickySweeper sweeper = new StickySweeper(() -> List.of(first, second), 1000L, LOGGER)) {
+            assertEquals(400, sweeper.sweep(1020L));
+
+            StickySweeper.Stats stats = sweeper.stats();
+            assertEquals(1, stats.sweeps());
+            assertEquals(400, stats.lastRemoved());
+            assertTrue(stats.lastDurationNanos() > 0);
+            assertEquals(stats.lastDurationNanos(), stats.maxDurationNanos());
+        }
+        assertEquals(0, first.size());
+        assertEquals(200, second.size());
+    }
+
+    @Test
+    void budgetFollowsExpiryRateAndPressure() {
+        StickyTable table = new StickyTable(100_000, 10);
+
+        assertEquals(StickySweeper.MIN_BATCH, StickySweeper.budget(table, 100, 1000L));
+        // 50k entries with a 10 s TTL expire at 5k per second, across 16 segments, budgeted twice over.
+        assertEquals(625, StickySweeper.budget(table, 50_000, 1000L));
+        assertEquals(Integer.MAX_VALUE, StickySweeper.budget(table, 90_000, 1000L));
+
+        StickyTable unbounded = new StickyTable(0, 1);
+        assertEquals(StickySweeper.MAX_BATCH, StickySweeper.budget(unbounded, 10_000_000, 1000L));
+    }
+
+    @Test
+    void scheduledSweeperRunsInTheBackground() throws Exception {
+        StickyTable table = new StickyTable(0, 1);
+        long now = System.currentTimeMillis() / 1000L;
+        for (int i = 0; i < 50; i++) {
+            admit(table, i, now - 10);
+        }
+
+        try (StickySweeper sweeper = new StickySweeper(() -> List.of(table), 100L, LOGGER)) {
+            sweeper.start();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (table.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(sweeper.stats().sweeps() > 0);
+        }
+        assertEquals(0, table.size());
+    }
+
+    private static void admit(StickyTable table, long lo, long now) {
+        table.put(0L, lo, 0, now, 0);
+        table.put(0L, lo, 0, now, 0);
+    }
+}
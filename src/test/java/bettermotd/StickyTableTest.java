@@ -0,0 +1,271 @@
+package bettermotd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class StickyTableTest {
+
+    private static final long TTL = 10;
+
+    @Test
+    void storesPresetAndFrameSeedPerAddress() {
+        StickyTable table = new StickyTable(100, TTL);
+
+        putAdmitted(table, 0L, 1L, 3, 1000L, -7);
+        putAdmitted(table, 0L, 2L, 5, 1000L, 42);
+
+        long first = table.get(0L, 1L, 1005L);
+        assertEquals(3, StickyTable.presetIndex(first));
+        assertEquals(-7, StickyTable.frameSeed(first));
+        assertEquals(5, StickyTable.presetIndex(table.get(0L, 2L, 1005L)));
+        assertEquals(StickyTable.MISSING, table.get(1L, 1L, 1005L));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void expiredEntriesAreMissingAndRemoved() {
+        StickyTable table = new StickyTable(100, TTL);
+        putAdmitted(table, 0L, 1L, 1, 1000L, 0);
+        putAdmitted(table, 0L, 2L, 1, 1009L, 0);
+
+        assertEquals(StickyTable.MISSING, table.get(0L, 1L, 1011L));
+        assertEquals(1, table.size());
+        assertEquals(1, table.removeExpired(1020L, 100));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void updatePresetKeepsLiveEntryCreationAndSeed() {
+        StickyTable table = new StickyTable(100, TTL);
+        putAdmitted(table, 0L, 1L, 1, 1000L, 11);
+
+        long updated = table.updatePreset(0L, 1L, 2, 1008L, 99);
+        assertEquals(2, StickyTable.presetIndex(updated));
+        assertEquals(11, StickyTable.frameSeed(updated));
+        // Still created at 1000, so it expires after 1010.
+        assertEquals(StickyTable.MISSING, table.get(0L, 1L, 1011L));
+
+        long fresh = table.updatePreset(0L, 1L, 4, 1011L, 99);
+        assertEquals(99, StickyTable.frameSeed(fresh));
+    }
+
+    @Test
+    void restoredEntriesKeepCreationTimeAndOrder() {
+        StickyTable saved = new StickyTable(100, TTL);
+        putAdmitted(saved, 0L, 1L, 3, 1000L, 11);
+        putAdmitted(saved, 0L, 2L, 4, 1005L, 12);
+        StickyTable restored = new StickyTable(100, TTL);
+
+        saved.forEach((hi, lo, preset, createdAt, frameSeed) ->
+                assertTrue(restored.restore(hi, lo, preset, createdAt, frameSeed)));
+
+        assertEquals(2, restored.size());
+        assertEquals(11, StickyTable.frameSeed(restored.get(0L, 1L, 1008L)));
+        assertEquals(4, StickyTable.presetIndex(restored.get(0L, 2L, 1008L)));
+        // Restored without admission, but still expiring from the original creation time.
+        assertEquals(1, restored.removeExpired(1011L, 100));
+        assertEquals(StickyTable.MISSING, restored.get(0L, 1L, 1011L));
+    }
+
+    @Test
+    void expiredEntryMakesRoomAtLimit() {
+        StickyTable table = new StickyTable(64, TTL);
+        putAdmitted(table, 0L, 0L, 0, 1000L, 0);
+        for (int i = 1; i < 64; i++) {
+            putAdmitted(table, 0L, i, i, 1005L, 0);
+        }
+
+        putAdmitted(table, 0L, 1000L, 7, 1011L, 0);
+
+        assertEquals(64, table.size());
+        assertEquals(StickyTable.MISSING, table.get(0L, 0L, 1011L));
+        assertEquals(7, StickyTable.presetIndex(table.get(0L, 1000L, 1011L)));
+        assertEquals(0, table.stats().evictions());
+    }
+
+    @Test
+    void growsAndSurvivesChurnWithoutLosingEntries() {
+        StickyTable table = new StickyTable(0, TTL);
+        for (int i = 0; i < 10_000; i++) {
+            // 100 new pingers per second; sweeping leaves tombstones between live entries.
+            long now = i / 100;
+            putAdmitted(table, i, -i, i % 50, now, i);
+            if (i % 3 == 0) {
+                table.removeExpired(now, 4);
+            }
+        }
+
+        for (int i = 9_000; i < 10_000; i++) {
+            long entry = table.get(i, -i, 99L);
+            assertEquals(i % 50, StickyTable.presetIndex(entry));
+            assertEquals(i, StickyTable.frameSeed(entry));
+        }
+        table.removeExpired(99L, Integer.MAX_VALUE);
+        assertEquals(1_100, table.size());
+    }
+
+    @Test
+    void sweepsReachEveryExpiredEntryAndStopAtLiveOnes() {
+        StickyTable table = new StickyTable(0, TTL);
+        for (int i = 0; i < 20_000; i++) {
+            putAdmitted(table, 0L, i, 0, 1000L, 0);
+        }
+        for (int i = 0; i < 100; i++) {
+            putAdmitted(table, 1L, i, 1, 1050L, 0);
+        }
+
+        int removed = 0;
+        int sweeps = 0;
+        for (int batch; (batch = table.removeExpired(1055L, 200)) > 0; sweeps++) {
+            removed += batch;
+        }
+
+        assertEquals(20_000, removed);
+        assertTrue(sweeps < 20_000 / 200, "sweeps " + sweeps);
+        assertEquals(100, table.size());
+        assertEquals(1, StickyTable.presetIndex(table.get(1L, 42L, 1055L)));
+    }
+
+    @Test
+    void refreshedEntryMovesToTheBackOfTheExpiryQueue() {
+        StickyTable table = new StickyTable(0, TTL);
+        putAdmitted(table, 0L, 1L, 1, 1000L, 0);
+        putAdmitted(table, 0L, 2L, 2, 1005L, 0);
+        putAdmitted(table, 0L, 1L, 3, 1008L, 0);
+
+        assertEquals(1, table.removeExpired(1016L, 100));
+        assertEquals(3, StickyTable.presetIndex(table.get(0L, 1L, 1016L)));
+    }
+
+    @Test
+    void concurrentInsertsAndCleanupStayWithinLimit() throws Exception {
+        StickyTable table = new StickyTable(200, 1_000L);
+        for (int i = 0; i < 500; i++) {
+            putAdmitted(table, 0L, i, 0, i, 0);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 50; i++) {
+            int idx = i;
+            pool.submit(() -> {
+                for (int j = 0; j < 100; j++) {
+                    putAdmitted(table, 1L, idx * 100L + j, 1, 10_000L, 0);
+                    table.removeExpired(10_000L, 200);
+                }
+            });
+        }
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(table.size() <= 200, "size " + table.size());
+        assertEquals(StickyTable.MISSING, table.get(0L, 499L, 10_000L));
+    }
+
+    @Test
+    void packsIpv4AsMappedIpv6() throws Exception {
+        InetAddress v4 = InetAddress.getByName("192.0.2.1");
+        InetAddress v6 = InetAddress.getByName("2001:db8::1");
+
+        assertEquals(0L, PackedIp.hi(v4));
+        assertEquals(0xFFFF_C000_0201L, PackedIp.lo(v4));
+        assertEquals(0x2001_0DB8_0000_0000L, PackedIp.hi(v6));
+        assertEquals(1L, PackedIp.lo(v6));
+        assertNotEquals(
+                PackedIp.hash(PackedIp.hi(v4), PackedIp.lo(v4)), PackedIp.hash(PackedIp.hi(v6), PackedIp.lo(v6)));
+    }
+
+    @Test
+    void firstSightingIsNotAdmitted() {
+        StickyTable table = new StickyTable(100, TTL);
+
+        assertEquals(StickyTable.MISSING, table.put(0L, 1L, 1, 1000L, 0));
+        assertEquals(StickyTable.MISSING, table.get(0L, 1L, 1000L));
+        assertEquals(1, StickyTable.presetIndex(table.put(0L, 1L, 1, 1000L, 0)));
+
+        StickyTable.Stats stats = table.stats();
+        assertEquals(1, stats.admissionRejects());
+        assertEquals(1, stats.size());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void scannerFloodDoesNotDisplaceRegularPingers() {
+        StickyTable table = new StickyTable(64, 3600);
+        for (int i = 0; i < 64; i++) {
+            putAdmitted(table, 0L, i, i, 1000L, 0);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            table.put(1L, i, 99, 1000L, 0);
+            if (i % 100 == 0) {
+                for (int regular = 0; regular < 64; regular++) {
+                    table.get(0L, regular, 1000L);
+                }
+            }
+        }
+
+        int survivors = 0;
+        for (int i = 0; i < 64; i++) {
+            long entry = table.get(0L, i, 1000L);
+            if (entry != StickyTable.MISSING) {
+                assertEquals(i, StickyTable.presetIndex(entry));
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 60, "survivors " + survivors);
+        assertTrue(
+                table.stats().admissionRejects() >= 99_000,
+                "rejects " + table.stats().admissionRejects());
+    }
+
+    @Test
+    void frequentNewcomerEvictsLeastRecentlyUsedEntry() {
+        StickyTable table = new StickyTable(64, 3600);
+        for (int i = 0; i < 64; i++) {
+            putAdmitted(table, 0L, i, i, 1000L, 0);
+        }
+        for (int i = 1; i < 64; i++) {
+            table.get(0L, i, 1000L);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            table.put(2L, 7L, 42, 1000L, 0);
+        }
+
+        assertEquals(42, StickyTable.presetIndex(table.get(2L, 7L, 1000L)));
+        assertEquals(StickyTable.MISSING, table.get(0L, 0L, 1000L));
+        assertEquals(1, table.stats().evictions());
+    }
+
+    @Test
+    void updatedPresetCountsAsRecentUse() {
+        StickyTable table = new StickyTable(64, 3600);
+        for (int i = 0; i < 64; i++) {
+            putAdmitted(table, 0L, i, i, 1000L, 0);
+        }
+        for (int i = 1; i < 64; i++) {
+            table.get(0L, i, 1000L);
+        }
+        table.updatePreset(0L, 0L, 9, 1000L, 0);
+
+        for (int i = 0; i < 5; i++) {
+            table.put(2L, 7L, 42, 1000L, 0);
+        }
+
+        assertEquals(9, StickyTable.presetIndex(table.get(0L, 0L, 1000L)));
+        assertEquals(StickyTable.MISSING, table.get(0L, 1L, 1000L));
+    }
+
+    /** Puts the entry the way a returning pinger would: the first sighting is only recorded. */
+    private static long putAdmitted(StickyTable table, long hi, long lo, int presetIndex, long now, int frameSeed) {
+        table.put(hi, lo, presetIndex, now, frameSeed);
+        return table.put(hi, lo, presetIndex, now, frameSeed);
+    }
+}